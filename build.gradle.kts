@@ -4,6 +4,7 @@ plugins {
     application
     id("org.graalvm.buildtools.native") version "0.11.1"
     id("com.google.protobuf") version "0.9.5"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 repositories {
@@ -33,7 +34,11 @@ graalvmNative {
 
 dependencies {
     implementation("commons-cli:commons-cli:1.10.0")
-    runtimeOnly("io.grpc:grpc-netty:1.77.0")
+    implementation("io.grpc:grpc-netty:1.77.0")
+    // Unix domain socket transport (Linux only, other platforms fall back to TCP).
+    implementation("io.netty:netty-transport-classes-epoll:4.1.127.Final")
+    runtimeOnly("io.netty:netty-transport-native-epoll:4.1.127.Final:linux-x86_64")
+    runtimeOnly("io.netty:netty-transport-native-epoll:4.1.127.Final:linux-aarch_64")
     implementation("io.grpc:grpc-protobuf:1.77.0")
     implementation("io.grpc:grpc-stub:1.77.0")
 
@@ -78,3 +83,8 @@ tasks.withType(JavaCompile::class) {
 tasks.named<Test>("test") {
     useJUnitPlatform()
 }
+
+// Micro benchmarks (src/jmh), run with `./gradlew jmh`.
+jmh {
+    profilers.add("gc")
+}
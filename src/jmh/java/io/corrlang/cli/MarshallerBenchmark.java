@@ -0,0 +1,210 @@
+package io.corrlang.cli;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Message;
+import io.corrlang.protocol.Ccp;
+import io.grpc.Detachable;
+import io.grpc.HasByteBuffer;
+import io.grpc.KnownLength;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing large schemas and binary chunks with the default protobuf marshaller (copying)
+ * against the {@link ZeroCopyMarshaller} (aliasing the receive buffers).
+ * The receive buffers are simulated by direct buffers in frames of 64 KB, like the ones handed out by Netty.
+ * Run with `./gradlew jmh`, the gc profiler reports the allocation rate (`gc.alloc.rate.norm`).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarshallerBenchmark {
+
+    private static final int FRAME_SIZE = 64 * 1024;
+
+    private final ZeroCopyMarshaller<Ccp.Schema> copyingSchema = new ZeroCopyMarshaller<>(Ccp.Schema.getDefaultInstance(), false);
+
+    private final ZeroCopyMarshaller<Ccp.Schema> aliasingSchema = new ZeroCopyMarshaller<>(Ccp.Schema.getDefaultInstance(), true);
+
+    private final ZeroCopyMarshaller<Ccp.BinaryData> copyingChunk = new ZeroCopyMarshaller<>(Ccp.BinaryData.getDefaultInstance(), false);
+
+    private final ZeroCopyMarshaller<Ccp.BinaryData> aliasingChunk = new ZeroCopyMarshaller<>(Ccp.BinaryData.getDefaultInstance(), true);
+
+    @State(Scope.Benchmark)
+    public static class SchemaPayload {
+
+        @Param({"1000", "100000"})
+        public int elements;
+
+        private ByteBuffer[] frames;
+
+        @Setup
+        public void setup() {
+            Ccp.Schema.Builder schema = Ccp.Schema.newBuilder().setId(1).setName("Benchmark");
+            for (int i = 0; i < elements; i++) {
+                schema.addElements(Ccp.SchemaElement.newBuilder()
+                        .setFullyQualifiedName(Ccp.Name.newBuilder()
+                                .addParts("com").addParts("example").addParts("model").addParts("Type" + i))
+                        .setElementType(Ccp.SchemaElementKind.values()[i % 4])
+                        .setDocumentationText("Documentation of element " + i + " that takes up some space on the wire."));
+            }
+            frames = frames(schema.build());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ChunkPayload {
+
+        @Param({"1048576", "16777216"})
+        public int size;
+
+        private ByteBuffer[] frames;
+
+        @Setup
+        public void setup() {
+            byte[] content = new byte[size];
+            new Random(42).nextBytes(content);
+            frames = frames(Ccp.BinaryData.newBuilder()
+                    .setByteLength(size)
+                    .setContent(ByteString.copyFrom(content))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public void schemaDefault(SchemaPayload payload, Blackhole bh) {
+        bh.consume(copyingSchema.parse(new FramedStream(payload.frames)).getElementsCount());
+    }
+
+    @Benchmark
+    public void schemaZeroCopy(SchemaPayload payload, Blackhole bh) {
+        Ccp.Schema schema = aliasingSchema.parse(new FramedStream(payload.frames));
+        bh.consume(schema.getElementsCount());
+        aliasingSchema.release(schema);
+    }
+
+    @Benchmark
+    public void chunkDefault(ChunkPayload payload, Blackhole bh) {
+        bh.consume(copyingChunk.parse(new FramedStream(payload.frames)).getContent().size());
+    }
+
+    @Benchmark
+    public void chunkZeroCopy(ChunkPayload payload, Blackhole bh) {
+        Ccp.BinaryData chunk = aliasingChunk.parse(new FramedStream(payload.frames));
+        bh.consume(chunk.getContent().size());
+        aliasingChunk.release(chunk);
+    }
+
+    private static ByteBuffer[] frames(Message message) {
+        byte[] bytes = message.toByteArray();
+        ByteBuffer[] result = new ByteBuffer[(bytes.length + FRAME_SIZE - 1) / FRAME_SIZE];
+        for (int i = 0; i < result.length; i++) {
+            int offset = i * FRAME_SIZE;
+            int length = Math.min(FRAME_SIZE, bytes.length - offset);
+            result[i] = ByteBuffer.allocateDirect(length).put(bytes, offset, length).flip();
+        }
+        return result;
+    }
+
+    /**
+     * Stands in for the message stream of the gRPC transport.
+     */
+    private static final class FramedStream extends InputStream implements KnownLength, HasByteBuffer, Detachable {
+
+        private final ByteBuffer[] frames;
+
+        private int current = 0;
+
+        private int offset = 0;
+
+        private FramedStream(ByteBuffer[] frames) {
+            this.frames = frames;
+        }
+
+        @Override
+        public int available() {
+            int result = 0;
+            for (int i = current; i < frames.length; i++) {
+                result += frames[i].limit();
+            }
+            return result - offset;
+        }
+
+        @Override
+        public int read() {
+            if (current >= frames.length) {
+                return -1;
+            }
+            int result = frames[current].get(offset) & 0xFF;
+            advance(1);
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (current >= frames.length) {
+                return -1;
+            }
+            int length = Math.min(len, frames[current].limit() - offset);
+            frames[current].get(offset, b, off, length);
+            advance(length);
+            return length;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = 0;
+            while (skipped < n && current < frames.length) {
+                int length = (int) Math.min(n - skipped, frames[current].limit() - offset);
+                advance(length);
+                skipped += length;
+            }
+            return skipped;
+        }
+
+        private void advance(int n) {
+            offset += n;
+            if (offset == frames[current].limit()) {
+                current++;
+                offset = 0;
+            }
+        }
+
+        @Override
+        public boolean byteBufferSupported() {
+            return true;
+        }
+
+        @Override
+        public ByteBuffer getByteBuffer() {
+            return current < frames.length ? frames[current].slice(offset, frames[current].limit() - offset) : null;
+        }
+
+        @Override
+        public InputStream detach() {
+            FramedStream detached = new FramedStream(frames);
+            detached.current = current;
+            detached.offset = offset;
+            current = frames.length;
+            return detached;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package io.corrlang.cli;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Compares extracting a distribution archive with the {@link ZipExtractor} (parallel, via `ZipFile`)
+ * against the sequential `ZipInputStream` extraction with 1 KB buffers that the installer used before.
+ * The archive is synthetic: a `corrlang/lib` directory with jar-sized entries of partially compressible content.
+ * Run with `./gradlew jmh`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnzipBenchmark {
+
+    @Param({"100"})
+    public int entries;
+
+    @Param({"524288"})
+    public int entrySize;
+
+    private Path dir;
+
+    private Path zip;
+
+    private Path target;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("unzip-benchmark");
+        zip = dir.resolve("corrlang.zip");
+        Random random = new Random(42);
+        byte[] content = new byte[entrySize];
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            out.putNextEntry(new ZipEntry("corrlang/"));
+            out.putNextEntry(new ZipEntry("corrlang/lib/"));
+            for (int i = 0; i < entries; i++) {
+                // half random, half repeated bytes, i.e. roughly the compression ratio of jars
+                random.nextBytes(content);
+                for (int j = 0; j < content.length / 2; j++) {
+                    content[j] = (byte) (j % 64);
+                }
+                out.putNextEntry(new ZipEntry("corrlang/lib/library-" + i + ".jar"));
+                out.write(content);
+                out.closeEntry();
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newTarget() throws IOException {
+        target = Files.createTempDirectory(dir, "target");
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteTarget() throws IOException {
+        TreeDeleter.delete(target);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        TreeDeleter.delete(dir);
+    }
+
+    @Benchmark
+    public Path zipExtractor() throws Exception {
+        ZipExtractor.extract(zip, target);
+        return target;
+    }
+
+    @Benchmark
+    public Path zipInputStream() throws IOException {
+        File destDir = target.toFile();
+        try (ZipInputStream zipIn = new ZipInputStream(new FileInputStream(zip.toFile()))) {
+            ZipEntry entry = zipIn.getNextEntry();
+            while (entry != null) {
+                String filePath = destDir + File.separator + entry.getName();
+                if (entry.getName().startsWith("corrlang")) {
+                    filePath = destDir + File.separator + entry.getName().substring(9);
+                }
+                if (!entry.isDirectory()) {
+                    try (OutputStream bos = new BufferedOutputStream(new FileOutputStream(filePath))) {
+                        byte[] bytesIn = new byte[1024];
+                        int read;
+                        while ((read = zipIn.read(bytesIn)) != -1) {
+                            bos.write(bytesIn, 0, read);
+                        }
+                    }
+                } else {
+                    new File(filePath).mkdirs();
+                }
+                zipIn.closeEntry();
+                entry = zipIn.getNextEntry();
+            }
+        }
+        return target;
+    }
+}
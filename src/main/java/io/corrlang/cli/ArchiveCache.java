@@ -0,0 +1,127 @@
+package io.corrlang.cli;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Content-addressed cache of downloaded CorrLang distributions, shared by all CorrLang installations of a user.
+ * <p>
+ * Archives are stored under their SHA-256 hash (`archives/<hash>.zip`), and an index maps the URIs they
+ * have been downloaded from to these hashes. The index also records size and modification time of the archive
+ * when it was last verified, hence an archive is only hashed again if it has been modified since.
+ * The location is `$CORRLANG_CACHE` or `~/.corrlang/cache`.
+ */
+class ArchiveCache {
+
+    public static final String ENV_CORRLANG_CACHE = "CORRLANG_CACHE";
+
+    private final Path dir;
+
+    ArchiveCache(Path dir) {
+        this.dir = dir;
+    }
+
+    static Path defaultDirectory() {
+        String dir = System.getenv(ENV_CORRLANG_CACHE);
+        if (dir != null && !dir.isBlank()) {
+            return Path.of(dir);
+        }
+        return Path.of(System.getProperty("user.home"), ".corrlang", "cache");
+    }
+
+    /**
+     * The cached archive downloaded from the given URI, if its content is still intact.
+     */
+    public Optional<Path> lookup(URI source) throws IOException {
+        List<String> index;
+        try {
+            // "<hash>", optionally followed by "<size>" and "<modification time>" of the verified archive
+            index = Files.readAllLines(indexFile(source));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+        String hash = index.isEmpty() ? "" : index.get(0).trim();
+        Path archive = archiveFile(hash);
+        if (hash.isEmpty() || !Files.exists(archive)) {
+            Files.deleteIfExists(indexFile(source));
+            return Optional.empty();
+        }
+        if (index.subList(1, index.size()).equals(attributes(archive))) {
+            return Optional.of(archive);
+        }
+        if (!ContentHashes.of(archive).equals(hash)) {
+            // corrupted, downloaded again
+            Files.deleteIfExists(archive);
+            Files.deleteIfExists(indexFile(source));
+            return Optional.empty();
+        }
+        writeIndex(source, hash, archive);
+        return Optional.of(archive);
+    }
+
+    /**
+     * Moves the given (downloaded) file into the cache and returns its location in the cache.
+     */
+    public Path store(URI source, Path file) throws IOException {
+        String hash = ContentHashes.of(file);
+        Path archive = archiveFile(hash);
+        Files.createDirectories(archive.getParent());
+        if (Files.exists(archive)) {
+            Files.delete(file);
+        } else {
+            Files.move(file, archive, StandardCopyOption.ATOMIC_MOVE);
+        }
+        writeIndex(source, hash, archive);
+        return archive;
+    }
+
+    /**
+     * The directory for (partial) downloads, which are resumed from there.
+     */
+    public Path downloadDirectory() throws IOException {
+        return Files.createDirectories(dir.resolve("downloads"));
+    }
+
+    private void writeIndex(URI source, String hash, Path archive) throws IOException {
+        Path index = indexFile(source);
+        Files.createDirectories(index.getParent());
+        List<String> lines = new ArrayList<>();
+        lines.add(hash);
+        lines.addAll(attributes(archive));
+        Path tmp = Files.createTempFile(index.getParent(), index.getFileName().toString(), ".tmp");
+        Files.write(tmp, lines);
+        Files.move(tmp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static List<String> attributes(Path archive) throws IOException {
+        return List.of(Long.toString(Files.size(archive)), Long.toString(Files.getLastModifiedTime(archive).toMillis()));
+    }
+
+    private Path archiveFile(String hash) {
+        return dir.resolve("archives").resolve(hash + ".zip");
+    }
+
+    private Path indexFile(URI source) {
+        return dir.resolve("index").resolve(sha256(source.toString()));
+    }
+
+    private static String sha256(String s) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package io.corrlang.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Downloads (large) files via HTTP. If the server supports range requests, the file is fetched in several segments
+ * in parallel, and the segments that have already been (partially) downloaded are resumed instead of starting over,
+ * also across invocations. Partial downloads are kept next to the target file until they are complete.
+ * <p>
+ * Invocations that download the same target at the same time (e.g. two installations of the same version) are
+ * serialized by a lock on the parts file, which is therefore never deleted, only emptied.
+ */
+class ArchiveDownloader {
+
+    public static final int DEFAULT_SEGMENTS = 4;
+
+    private static final long MIN_SEGMENT_SIZE = 1024 * 1024;
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes\\s+\\d+-\\d+/(\\d+)");
+
+    /**
+     * Validator and length of a remote file, identifying the version of the file the parts belong to.
+     */
+    private record RemoteFile(long length, String validator) {
+
+        String serialize() {
+            return length + "\n" + validator;
+        }
+    }
+
+    /**
+     * The remote file does not match the parts downloaded so far anymore, which is not fixed by trying again.
+     */
+    private static final class RemoteChangedException extends IOException {
+
+        RemoteChangedException(String message) {
+            super(message);
+        }
+    }
+
+    private record Segment(int index, long start, long end) {
+
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    private final HttpClient httpClient;
+
+    private final int segments;
+
+    ArchiveDownloader(int segments) {
+        this.httpClient = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        this.segments = segments;
+    }
+
+    /**
+     * Downloads the file at the given URI to the target file (replacing it).
+     */
+    public void download(URI uri, Path target) throws IOException, InterruptedException {
+        try (FileChannel meta = FileChannel.open(partsFile(target), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock lock = meta.lock()) {
+            download(uri, target, meta);
+        }
+    }
+
+    private void download(URI uri, Path target, FileChannel meta) throws IOException, InterruptedException {
+        // a single request tells whether ranges are supported and, if not, already delivers the whole file
+        HttpResponse<InputStream> probe = httpClient.send(
+                HttpRequest.newBuilder(uri).header("Range", "bytes=0-0").GET().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = probe.body()) {
+            if (probe.statusCode() == 200) {
+                deleteParts(target, meta);
+                Path tmp = target.resolveSibling(target.getFileName() + ".download");
+                Files.copy(body, tmp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+                return;
+            } else if (probe.statusCode() != 206) {
+                throw new IOException("Failed to download '" + uri + "': HTTP status " + probe.statusCode());
+            }
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+        RemoteFile remote = remoteFile(uri, probe.headers());
+
+        if (remote.validator().isEmpty() || !read(meta).equals(remote.serialize())) {
+            // the parts (if any) belong to another version of the file, which cannot be told without a validator
+            deleteParts(target, meta);
+            write(meta, remote.serialize());
+        }
+
+        List<Segment> segmentList = segments(remote.length());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Segment segment : segmentList) {
+                futures.add(executor.submit(() -> {
+                    downloadSegment(uri, remote, segment, partFile(target, segment));
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Failed to download '" + uri + "'", e.getCause());
+        }
+
+        Path tmp = target.resolveSibling(target.getFileName() + ".download");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Segment segment : segmentList) {
+                try (FileChannel in = FileChannel.open(partFile(target, segment), StandardOpenOption.READ)) {
+                    long position = 0;
+                    while (position < in.size()) {
+                        position += in.transferTo(position, in.size() - position, out);
+                    }
+                }
+            }
+        }
+        if (Files.size(tmp) != remote.length()) {
+            Files.delete(tmp);
+            deleteParts(target, meta);
+            throw new IOException("Download of '" + uri + "' is incomplete, please try again.");
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        deleteParts(target, meta);
+    }
+
+    /**
+     * Fetches the remainder of the segment, i.e. starting after what has already been written to the part file.
+     */
+    private void downloadSegment(URI uri, RemoteFile remote, Segment segment, Path partFile) throws IOException, InterruptedException {
+        IOException failure = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            long done = Files.exists(partFile) ? Files.size(partFile) : 0;
+            if (done > segment.length()) {
+                Files.delete(partFile);
+                done = 0;
+            }
+            if (done == segment.length()) {
+                return;
+            }
+            HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                    .header("Range", "bytes=" + (segment.start() + done) + "-" + segment.end())
+                    .GET();
+            if (!remote.validator().isEmpty()) {
+                // answered with the whole (changed) file instead of the range if the validator does not match anymore
+                request.header("If-Range", remote.validator());
+            }
+            try {
+                HttpResponse<InputStream> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+                try (InputStream body = response.body()) {
+                    int status = response.statusCode();
+                    if (status == 200 || status == 412 || status == 416) {
+                        // the whole (changed) file instead of the range, a failed precondition or a shorter file
+                        throw new RemoteChangedException("The file at '" + uri + "' has changed during the download (HTTP status " + status + "), please try again.");
+                    } else if (status != 206) {
+                        throw new IOException("Failed to download '" + uri + "': HTTP status " + status);
+                    }
+                    try (OutputStream out = Files.newOutputStream(partFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                        byte[] buffer = new byte[BUFFER_SIZE];
+                        int read;
+                        while ((read = body.read(buffer)) != -1) {
+                            out.write(buffer, 0, read);
+                        }
+                    }
+                }
+            } catch (RemoteChangedException e) {
+                throw e;
+            } catch (IOException e) {
+                // resumed by the next attempt
+                failure = e;
+            }
+        }
+        if (Files.exists(partFile) && Files.size(partFile) == segment.length()) {
+            return;
+        }
+        throw failure != null ? failure : new IOException("Failed to download '" + uri + "'");
+    }
+
+    private List<Segment> segments(long length) {
+        int count = (int) Math.max(1, Math.min(segments, length / MIN_SEGMENT_SIZE));
+        long size = (length + count - 1) / count;
+        List<Segment> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long start = i * size;
+            long end = Math.min(length, start + size) - 1;
+            if (start <= end) {
+                result.add(new Segment(i, start, end));
+            }
+        }
+        return result;
+    }
+
+    private static RemoteFile remoteFile(URI uri, HttpHeaders headers) throws IOException {
+        String contentRange = headers.firstValue("Content-Range").orElse("");
+        Matcher matcher = CONTENT_RANGE.matcher(contentRange);
+        if (!matcher.find()) {
+            throw new IOException("Failed to download '" + uri + "': unexpected Content-Range '" + contentRange + "'");
+        }
+        Optional<String> etag = headers.firstValue("ETag").filter(e -> !e.startsWith("W/"));
+        String validator = etag.or(() -> headers.firstValue("Last-Modified")).orElse("");
+        return new RemoteFile(Long.parseLong(matcher.group(1)), validator);
+    }
+
+    private static Path partsFile(Path target) {
+        return target.resolveSibling(target.getFileName() + ".parts");
+    }
+
+    private static Path partFile(Path target, Segment segment) {
+        return target.resolveSibling(target.getFileName() + ".part" + segment.index());
+    }
+
+    /**
+     * Deletes the part files and empties the (locked) parts file.
+     */
+    private static void deleteParts(Path target, FileChannel meta) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        String prefix = target.getFileName() + ".part";
+        Path partsFile = partsFile(target).getFileName();
+        try (var files = Files.list(dir)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().startsWith(prefix) && !f.getFileName().equals(partsFile)).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        meta.truncate(0);
+    }
+
+    private static String read(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) != -1) {
+            // until the whole file has been read
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    private static void write(FileChannel channel, String content) throws IOException {
+        channel.truncate(0);
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(content);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+        channel.force(false);
+    }
+
+    /**
+     * The checksum published next to the file (as `<file>.sha256`), if the server offers one.
+     */
+    public Optional<String> publishedChecksum(URI uri) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(
+                HttpRequest.newBuilder(URI.create(uri + ".sha256")).GET().build(),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        if (response.statusCode() != 200) {
+            return Optional.empty();
+        }
+        // "<hash>" or "<hash>  <file name>"
+        String[] content = response.body().trim().split("\\s+");
+        return content.length > 0 && content[0].matches("[0-9a-fA-F]{64}") ? Optional.of(content[0].toLowerCase(Locale.ROOT)) : Optional.empty();
+    }
+}
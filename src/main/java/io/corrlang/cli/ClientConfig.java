@@ -0,0 +1,230 @@
+package io.corrlang.cli;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings of the gRPC client towards the core service, read from the `[client]` section of `config.toml`.
+ */
+record ClientConfig(
+        Duration deadline,
+        Duration readDeadline,
+        Duration bulkDeadline,
+        int maxAttempts,
+        Duration initialBackoff,
+        Duration maxBackoff,
+        double backoffMultiplier,
+        boolean hedging,
+        int hedgingMaxAttempts,
+        Duration hedgingDelay,
+        String compression,
+        int maxInboundMessageSize,
+        int chunkSize,
+        boolean zeroCopy,
+        long schemaCacheSize,
+        int applyParallelism,
+        Duration startupTimeout
+) {
+
+    public static final String SECTION = "client";
+
+    private static final String SERVICE_NAME = "CoreService";
+
+    /**
+     * Idempotent reads, they are retried on transient failures.
+     */
+    private static final List<String> IDEMPOTENT_READS = List.of(
+            "GetObjects",
+            "GetRegisteredTechSpaces",
+            "GetSchemaFingerprint"
+    );
+
+    /**
+     * Liveness probes (e.g. before `up`, `status` or `upgrade`), they are not retried, i.e. a service that is not running
+     * is detected at once instead of after all retry attempts.
+     */
+    private static final List<String> PROBES = List.of(
+            "GetStatus"
+    );
+
+    /**
+     * Idempotent reads of schemas (up to the max. inbound message size or streamed in chunks),
+     * they are retried like the other reads but get a deadline that suits their size.
+     */
+    private static final List<String> BULK_READS = List.of(
+            "GetSchema",
+            "GetSchemaChunked"
+    );
+
+    /**
+     * Point lookups of single objects, they are hedged if enabled (and retried otherwise).
+     */
+    private static final List<String> LOOKUPS = List.of(
+            "GetEndpoint",
+            "GetCorrespondence",
+            "GetView"
+    );
+
+    /**
+     * Streaming calls whose duration depends on the amount of data, hence they do not get a deadline.
+     */
+    private static final List<String> STREAMS = List.of(
+            "StreamObjects",
+            "PushData",
+            "UploadFile"
+    );
+
+    public static final ClientConfig DEFAULT = new ClientConfig(
+            Duration.ofSeconds(60),
+            Duration.ofSeconds(10),
+            Duration.ofMinutes(5),
+            4,
+            Duration.ofMillis(100),
+            Duration.ofSeconds(2),
+            2.0,
+            false,
+            3,
+            Duration.ofMillis(50),
+            "gzip",
+            64 * 1024 * 1024,
+            1024 * 1024,
+            false,
+            256L * 1024 * 1024,
+            8,
+            Duration.ofSeconds(60)
+    );
+
+    public static ClientConfig load(Path configFile) throws IOException {
+        return from(ConfigFile.load(configFile));
+    }
+
+    public static ClientConfig from(ConfigFile config) {
+        return new ClientConfig(
+                config.getDuration(SECTION, "deadline", DEFAULT.deadline),
+                config.getDuration(SECTION, "readDeadline", DEFAULT.readDeadline),
+                config.getDuration(SECTION, "bulkDeadline", DEFAULT.bulkDeadline),
+                attempts(config, "maxAttempts", DEFAULT.maxAttempts),
+                positive(config, "initialBackoff", DEFAULT.initialBackoff),
+                positive(config, "maxBackoff", DEFAULT.maxBackoff),
+                positive(config, "backoffMultiplier", DEFAULT.backoffMultiplier),
+                config.getBoolean(SECTION, "hedging", DEFAULT.hedging),
+                attempts(config, "hedgingMaxAttempts", DEFAULT.hedgingMaxAttempts),
+                positive(config, "hedgingDelay", DEFAULT.hedgingDelay),
+                config.getString(SECTION, "compression", DEFAULT.compression),
+                config.getIntSize(SECTION, "maxInboundMessageSize", DEFAULT.maxInboundMessageSize),
+                config.getIntSize(SECTION, "chunkSize", DEFAULT.chunkSize),
+                config.getBoolean(SECTION, "zeroCopy", DEFAULT.zeroCopy),
+                config.getSize(SECTION, "schemaCacheSize", DEFAULT.schemaCacheSize),
+                config.getInt(SECTION, "applyParallelism", DEFAULT.applyParallelism),
+                config.getDuration(SECTION, "startupTimeout", DEFAULT.startupTimeout)
+        );
+    }
+
+    /**
+     * The number of attempts of a call, i.e. 1 disables retries or hedging.
+     */
+    private static int attempts(ConfigFile config, String key, int defaultValue) {
+        int value = config.getInt(SECTION, key, defaultValue);
+        if (value < 1) {
+            throw new IllegalArgumentException("'" + key + "' in [" + SECTION + "] must be at least 1, but is " + value + "!");
+        }
+        return value;
+    }
+
+    private static Duration positive(ConfigFile config, String key, Duration defaultValue) {
+        Duration value = config.getDuration(SECTION, key, defaultValue);
+        if (value.isNegative() || value.isZero()) {
+            throw new IllegalArgumentException("'" + key + "' in [" + SECTION + "] must be positive, but is " + value + "!");
+        }
+        return value;
+    }
+
+    private static double positive(ConfigFile config, String key, double defaultValue) {
+        double value = config.getDouble(SECTION, key, defaultValue);
+        if (!(value > 0)) {
+            throw new IllegalArgumentException("'" + key + "' in [" + SECTION + "] must be positive, but is " + value + "!");
+        }
+        return value;
+    }
+
+    /**
+     * Builds the gRPC service config (in its JSON representation) with deadlines, retry and hedging policies
+     * for the methods of the core service. gRPC only accepts policies with at least two attempts,
+     * hence a single attempt is configured by omitting the policy.
+     */
+    public Map<String, Object> toServiceConfig() {
+        List<Object> methodConfigs = new ArrayList<>();
+
+        // default for all other methods: they may modify the state, hence only a deadline
+        methodConfigs.add(Map.of(
+                "name", List.of(Map.of("service", SERVICE_NAME)),
+                "timeout", toProtoDuration(deadline)
+        ));
+
+        Map<String, Object> retryPolicy = Map.of(
+                "maxAttempts", (double) maxAttempts,
+                "initialBackoff", toProtoDuration(initialBackoff),
+                "maxBackoff", toProtoDuration(maxBackoff),
+                "backoffMultiplier", backoffMultiplier,
+                "retryableStatusCodes", List.of("UNAVAILABLE")
+        );
+        methodConfigs.add(retried(methodNames(IDEMPOTENT_READS), readDeadline, retryPolicy));
+        methodConfigs.add(Map.of(
+                "name", methodNames(PROBES),
+                "timeout", toProtoDuration(readDeadline)
+        ));
+        methodConfigs.add(retried(methodNames(BULK_READS), bulkDeadline, retryPolicy));
+
+        // a method config can either have a retry or a hedging policy
+        if (hedging && hedgingMaxAttempts > 1) {
+            methodConfigs.add(Map.of(
+                    "name", methodNames(LOOKUPS),
+                    "timeout", toProtoDuration(readDeadline),
+                    "hedgingPolicy", Map.of(
+                            "maxAttempts", (double) hedgingMaxAttempts,
+                            "hedgingDelay", toProtoDuration(hedgingDelay),
+                            "nonFatalStatusCodes", List.of("UNAVAILABLE")
+                    )
+            ));
+        } else {
+            methodConfigs.add(retried(methodNames(LOOKUPS), readDeadline, retryPolicy));
+        }
+
+        // no timeout for streams
+        methodConfigs.add(Map.of("name", methodNames(STREAMS)));
+
+        return Map.of("methodConfig", methodConfigs);
+    }
+
+    private Map<String, Object> retried(List<Object> names, Duration timeout, Map<String, Object> retryPolicy) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("name", names);
+        result.put("timeout", toProtoDuration(timeout));
+        if (maxAttempts > 1) {
+            result.put("retryPolicy", retryPolicy);
+        }
+        return result;
+    }
+
+    public int maxRetryAttempts() {
+        return Math.max(maxAttempts, hedging ? hedgingMaxAttempts : 1);
+    }
+
+    private static List<Object> methodNames(List<String> methods) {
+        List<Object> result = new ArrayList<>();
+        for (String method : methods) {
+            result.add(Map.of("service", SERVICE_NAME, "method", method));
+        }
+        return result;
+    }
+
+    private static String toProtoDuration(Duration duration) {
+        return String.format(Locale.ROOT, "%d.%09ds", duration.getSeconds(), duration.getNano());
+    }
+}
@@ -0,0 +1,320 @@
+package io.corrlang.cli;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Minimal reader for the CorrLang configuration file (`config.toml`).
+ * It understands tables (`[a.b]`) and key-value pairs with strings, integers, floats, booleans
+ * and single-line arrays thereof, which is the subset of TOML used by the CorrLang configuration.
+ */
+class ConfigFile {
+
+    private final Map<String, Map<String, Object>> tables;
+
+    private ConfigFile(Map<String, Map<String, Object>> tables) {
+        this.tables = tables;
+    }
+
+    public static ConfigFile empty() {
+        return new ConfigFile(Collections.emptyMap());
+    }
+
+    /**
+     * Reads the given file, a missing file yields an empty configuration.
+     */
+    public static ConfigFile load(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return empty();
+        }
+        return parse(Files.readAllLines(file));
+    }
+
+    static ConfigFile parse(List<String> lines) {
+        Map<String, Map<String, Object>> tables = new LinkedHashMap<>();
+        Map<String, Object> current = tables.computeIfAbsent("", k -> new LinkedHashMap<>());
+        int lineNo = 0;
+        for (String raw : lines) {
+            lineNo++;
+            String line = stripComment(raw).trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.startsWith("[")) {
+                if (!line.endsWith("]")) {
+                    throw new IllegalArgumentException("Malformed table header in line " + lineNo + ": " + raw);
+                }
+                String name = tableName(line.substring(1, line.length() - 1).trim());
+                current = tables.computeIfAbsent(name, k -> new LinkedHashMap<>());
+            } else {
+                int idx = line.indexOf('=');
+                if (idx < 0) {
+                    throw new IllegalArgumentException("Expected 'key = value' in line " + lineNo + ": " + raw);
+                }
+                current.put(unquote(line.substring(0, idx).trim()), parseValue(line.substring(idx + 1).trim(), lineNo));
+            }
+        }
+        return new ConfigFile(tables);
+    }
+
+    public Set<String> tableNames() {
+        return tables.keySet();
+    }
+
+    public Map<String, Object> table(String name) {
+        return tables.getOrDefault(name, Collections.emptyMap());
+    }
+
+    public boolean has(String table, String key) {
+        return table(table).containsKey(key);
+    }
+
+    public String getString(String table, String key, String defaultValue) {
+        Object value = table(table).get(key);
+        return value != null ? value.toString() : defaultValue;
+    }
+
+    public long getLong(String table, String key, long defaultValue) {
+        Object value = table(table).get(key);
+        return value instanceof Number n ? n.longValue() : defaultValue;
+    }
+
+    /**
+     * Reads an integer, values beyond the range of `int` are rejected instead of being truncated.
+     */
+    public int getInt(String table, String key, int defaultValue) {
+        return toInt(getLong(table, key, defaultValue), table, key);
+    }
+
+    public double getDouble(String table, String key, double defaultValue) {
+        Object value = table(table).get(key);
+        return value instanceof Number n ? n.doubleValue() : defaultValue;
+    }
+
+    public boolean getBoolean(String table, String key, boolean defaultValue) {
+        Object value = table(table).get(key);
+        return value instanceof Boolean b ? b : defaultValue;
+    }
+
+    public List<String> getStringList(String table, String key) {
+        Object value = table(table).get(key);
+        if (value instanceof List<?> list) {
+            return list.stream().map(Object::toString).toList();
+        }
+        return value != null ? List.of(value.toString()) : List.of();
+    }
+
+    /**
+     * Reads a duration given as string with unit suffix (`ms`, `s`, `m`, `h`), e.g. "250ms" or "5s".
+     * Plain numbers are interpreted as milliseconds.
+     */
+    public Duration getDuration(String table, String key, Duration defaultValue) {
+        Object value = table(table).get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number n) {
+            return Duration.ofMillis(n.longValue());
+        }
+        String s = value.toString().trim().toLowerCase(Locale.ROOT);
+        try {
+            if (s.endsWith("ms")) {
+                return Duration.ofMillis(Long.parseLong(s.substring(0, s.length() - 2).trim()));
+            } else if (s.endsWith("s")) {
+                return Duration.ofMillis((long) (Double.parseDouble(s.substring(0, s.length() - 1).trim()) * 1000));
+            } else if (s.endsWith("m")) {
+                return Duration.ofSeconds(Long.parseLong(s.substring(0, s.length() - 1).trim()) * 60);
+            } else if (s.endsWith("h")) {
+                return Duration.ofHours(Long.parseLong(s.substring(0, s.length() - 1).trim()));
+            }
+            return Duration.ofMillis(Long.parseLong(s));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid duration '" + value + "' for '" + table + "." + key + "'!");
+        }
+    }
+
+    /**
+     * Reads a size given as string with unit suffix (`KB`, `MB`, `GB`), e.g. "64MB".
+     * Plain numbers are interpreted as bytes.
+     */
+    public long getSize(String table, String key, long defaultValue) {
+        Object value = table(table).get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number n) {
+            return n.longValue();
+        }
+        String s = value.toString().trim().toUpperCase(Locale.ROOT);
+        try {
+            if (s.endsWith("KB")) {
+                return Math.multiplyExact(Long.parseLong(s.substring(0, s.length() - 2).trim()), 1024L);
+            } else if (s.endsWith("MB")) {
+                return Math.multiplyExact(Long.parseLong(s.substring(0, s.length() - 2).trim()), 1024L * 1024);
+            } else if (s.endsWith("GB")) {
+                return Math.multiplyExact(Long.parseLong(s.substring(0, s.length() - 2).trim()), 1024L * 1024 * 1024);
+            } else if (s.endsWith("B")) {
+                return Long.parseLong(s.substring(0, s.length() - 1).trim());
+            }
+            return Long.parseLong(s);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid size '" + value + "' for '" + table + "." + key + "'!");
+        }
+    }
+
+    /**
+     * Same as {@link #getSize(String, String, long)}, for sizes limited to the range of `int` (e.g. message sizes).
+     */
+    public int getIntSize(String table, String key, int defaultValue) {
+        return toInt(getSize(table, key, defaultValue), table, key);
+    }
+
+    private static int toInt(long value, String table, String key) {
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Value " + value + " of '" + table + "." + key + "' is out of range!");
+        }
+        return (int) value;
+    }
+
+    private static String stripComment(String line) {
+        boolean inString = false;
+        char quote = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inString) {
+                if (c == '\\' && quote == '"') {
+                    i++;
+                } else if (c == quote) {
+                    inString = false;
+                }
+            } else if (c == '"' || c == '\'') {
+                inString = true;
+                quote = c;
+            } else if (c == '#') {
+                return line.substring(0, i);
+            }
+        }
+        return line;
+    }
+
+    /**
+     * Normalizes a (dotted) table name by removing the quotes of its segments, e.g. `a."b-c"` becomes `a.b-c`.
+     */
+    private static String tableName(String name) {
+        List<String> segments = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        char quote = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '.') {
+                segments.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        segments.add(current.toString().trim());
+        return String.join(".", segments);
+    }
+
+    private static String unquote(String key) {
+        if (key.length() >= 2 && (key.startsWith("\"") && key.endsWith("\"") || key.startsWith("'") && key.endsWith("'"))) {
+            return key.substring(1, key.length() - 1);
+        }
+        return key;
+    }
+
+    private static Object parseValue(String value, int lineNo) {
+        if (value.startsWith("[")) {
+            if (!value.endsWith("]")) {
+                throw new IllegalArgumentException("Only single-line arrays are supported (line " + lineNo + ")!");
+            }
+            List<Object> result = new ArrayList<>();
+            for (String element : splitArray(value.substring(1, value.length() - 1))) {
+                if (!element.isBlank()) {
+                    result.add(parseValue(element.trim(), lineNo));
+                }
+            }
+            return result;
+        } else if (value.startsWith("\"")) {
+            return unescape(value.substring(1, value.lastIndexOf('"')));
+        } else if (value.startsWith("'")) {
+            return value.substring(1, value.lastIndexOf('\''));
+        } else if (value.equals("true") || value.equals("false")) {
+            return Boolean.parseBoolean(value);
+        }
+        String number = value.replace("_", "");
+        try {
+            if (number.contains(".") || number.contains("e") || number.contains("E")) {
+                return Double.parseDouble(number);
+            }
+            return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cannot parse value '" + value + "' in line " + lineNo + "!");
+        }
+    }
+
+    private static List<String> splitArray(String content) {
+        List<String> result = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inString = false;
+        char quote = 0;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (inString) {
+                if (c == '\\' && quote == '"' && i + 1 < content.length()) {
+                    current.append(c);
+                    c = content.charAt(++i);
+                } else if (c == quote) {
+                    inString = false;
+                }
+            } else if (c == '"' || c == '\'') {
+                inString = true;
+                quote = c;
+            } else if (c == ',') {
+                result.add(current.toString());
+                current.setLength(0);
+                continue;
+            }
+            current.append(c);
+        }
+        result.add(current.toString());
+        return result;
+    }
+
+    private static String unescape(String s) {
+        StringBuilder result = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char next = s.charAt(++i);
+                switch (next) {
+                    case 'n' -> result.append('\n');
+                    case 't' -> result.append('\t');
+                    case 'r' -> result.append('\r');
+                    default -> result.append(next);
+                }
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package io.corrlang.cli;
+
+import com.google.protobuf.ByteString;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Hex-encoded SHA-256 hashes of file and message contents, used to detect whether something has actually changed.
+ */
+final class ContentHashes {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ContentHashes() {
+    }
+
+    static String of(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        update(digest, file);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    static String of(ByteString bytes) {
+        MessageDigest digest = newDigest();
+        for (ByteBuffer buffer : bytes.asReadOnlyByteBufferList()) {
+            digest.update(buffer);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * A single hash over the given strings (e.g. paths) and the contents of the given files.
+     */
+    static String combined(Iterable<String> strings, Iterable<Path> files) throws IOException {
+        MessageDigest digest = newDigest();
+        for (String s : strings) {
+            digest.update(s.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        for (Path file : files) {
+            digest.update(file.toString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            update(digest, file);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,36 +1,213 @@
 package io.corrlang.cli;
 
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.TextFormat;
 import io.corrlang.protocol.Ccp;
 import io.corrlang.protocol.Core;
 import io.corrlang.protocol.CoreServiceGrpc;
+import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.protobuf.ProtoUtils;
+import io.grpc.stub.ClientCalls;
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.InetAddress;
 import java.net.MalformedURLException;
+import java.net.NetworkInterface;
+import java.net.SocketException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
-public class CoreServiceClient {
+public class CoreServiceClient implements IncrementalApplier.Client {
+
+    /**
+     * First API version of the core service that supports name, id and prefix filters in GetObjects.
+     */
+    public static final int MIN_API_VERSION_OBJECT_FILTERS = 3;
+
+    /**
+     * First API version of the core service that offers ApplyBatch.
+     */
+    public static final int MIN_API_VERSION_BATCH = 3;
+
+    /**
+     * First API version of the core service that offers GetSchemaChunked.
+     */
+    public static final int MIN_API_VERSION_CHUNKED_SCHEMA = 3;
+
+    /**
+     * First API version of the core service that offers UploadFile.
+     */
+    public static final int MIN_API_VERSION_UPLOAD = 3;
+
+    /**
+     * First API version of the core service that offers GetSchemaFingerprint.
+     */
+    public static final int MIN_API_VERSION_SCHEMA_FINGERPRINT = 3;
+
+    private final ManagedChannel channel;
 
     private final CoreServiceGrpc.CoreServiceBlockingStub client;
 
+    /**
+     * Used for fanning out lookups of several objects concurrently.
+     */
+    private final CoreServiceGrpc.CoreServiceFutureStub futureClient;
+
+    /**
+     * Used for streaming calls that need flow control.
+     */
+    private final CoreServiceGrpc.CoreServiceStub asyncClient;
+
+    private final ObjectRegistry registry;
+
+    private final ClientConfig config;
+
+    /**
+     * Schemas and their chunks are parsed with dedicated marshallers, which avoid copying if zero-copy is enabled.
+     */
+    private final ZeroCopyMarshaller<Ccp.Schema> schemaMarshaller;
+
+    private final ZeroCopyMarshaller<Ccp.BinaryData> chunkMarshaller;
+
+    private final MethodDescriptor<Core.GetSchemaRequest, Ccp.Schema> getSchemaMethod;
+
+    private final MethodDescriptor<Core.GetSchemaRequest, Ccp.BinaryData> getSchemaChunkedMethod;
+
+    @Nullable
+    private final SchemaCache schemaCache;
+
+    /**
+     * Whether the core service can report schema fingerprints, i.e. whether the schema cache can be validated.
+     */
+    private boolean schemaFingerprintsSupported = true;
+
     private final int port;
 
+    /**
+     * The transport of the channel, as reported by the status.
+     */
+    private final String transport;
+
+    /**
+     * Whether the core service runs on another host, i.e. local files have to be uploaded.
+     */
+    private final boolean remote;
+
+    @Nullable
+    private Core.CorrLangServiceStatus serviceStatus;
+
     public CoreServiceClient(String host, int port) {
+        this(host, port, null, ClientConfig.DEFAULT, null);
+    }
+
+    /**
+     * Creates a client that talks to the core service via the given Unix domain socket if present,
+     * otherwise it falls back to TCP on the given host and port.
+     * Deadlines, retries and hedging of the calls are set up according to the given config.
+     * If a schema cache is given, schemas are only fetched if the cached version is outdated.
+     */
+    public CoreServiceClient(String host, int port, @Nullable Path socket, ClientConfig config, @Nullable SchemaCache schemaCache) {
         this.port = port;
-        this.client = CoreServiceGrpc.newBlockingStub(ManagedChannelBuilder.forAddress(host, port).usePlaintext().build());
+        this.transport = socket != null ? "UDS/" + socket : "TCP/" + host + ":" + port;
+        this.config = config;
+        this.schemaCache = schemaCache;
+        this.remote = socket == null && !isLocalHost(host);
+        ManagedChannelBuilder<?> channelBuilder = socket != null ?
+                DomainSocketChannels.forSocket(socket) :
+                ManagedChannelBuilder.forAddress(host, port);
+        this.channel = channelBuilder
+                .usePlaintext()
+                .disableServiceConfigLookUp()
+                .defaultServiceConfig(config.toServiceConfig())
+                .maxRetryAttempts(config.maxRetryAttempts())
+                .enableRetry()
+                .maxInboundMessageSize(config.maxInboundMessageSize())
+                .build();
+        this.client = CoreServiceGrpc.newBlockingStub(channel);
+        this.futureClient = CoreServiceGrpc.newFutureStub(channel);
+        this.asyncClient = CoreServiceGrpc.newStub(channel);
+        this.schemaMarshaller = new ZeroCopyMarshaller<>(Ccp.Schema.getDefaultInstance(), config.zeroCopy());
+        this.chunkMarshaller = new ZeroCopyMarshaller<>(Ccp.BinaryData.getDefaultInstance(), config.zeroCopy());
+        MethodDescriptor.Marshaller<Core.GetSchemaRequest> schemaRequestMarshaller = ProtoUtils.marshaller(Core.GetSchemaRequest.getDefaultInstance());
+        this.getSchemaMethod = CoreServiceGrpc.getGetSchemaMethod().toBuilder(schemaRequestMarshaller, schemaMarshaller).build();
+        this.getSchemaChunkedMethod = CoreServiceGrpc.getGetSchemaChunkedMethod().toBuilder(schemaRequestMarshaller, chunkMarshaller).build();
+        this.registry = new ObjectRegistry(
+                request -> client.getObjects(request).getObjectsList(),
+                () -> getApiVersion() >= MIN_API_VERSION_OBJECT_FILTERS);
+    }
+
+    private static boolean isLocalHost(String host) {
+        try {
+            InetAddress address = InetAddress.getByName(host);
+            return address.isLoopbackAddress() || address.isAnyLocalAddress() || NetworkInterface.getByInetAddress(address) != null;
+        } catch (UnknownHostException | SocketException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The API version of the connected core service, it is only asked for once per session.
+     */
+    public int getApiVersion() {
+        return getServiceStatus().getApiVersion();
+    }
+
+    /**
+     * The status of the connected core service as of the first call in this session.
+     */
+    @Override
+    public synchronized Core.CorrLangServiceStatus getServiceStatus() {
+        if (serviceStatus == null) {
+            serviceStatus = client.getStatus(Core.GetStatusRequest.newBuilder().build());
+        }
+        return serviceStatus;
+    }
+
+    /**
+     * Waits for an asynchronous call (or a combination of calls) to finish.
+     * Failures are rethrown as they would have been by the blocking stub.
+     */
+    private static <T> T await(ListenableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof StatusRuntimeException statusException) {
+                throw statusException;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
     }
 
     public Dto.CorrLangServiceStatus getStatus() {
@@ -41,10 +218,39 @@ public class CoreServiceClient {
                     status.getApiVersion(),
                     status.getPid(),
                     port,
+                    transport,
                     Instant.ofEpochSecond(status.getStartupTS())
             );
         } catch (StatusRuntimeException e) {
-            return new Dto.CorrLangServiceStatus(false, null, null, port, null);
+            return new Dto.CorrLangServiceStatus(false, null, null, port, null, null);
+        }
+    }
+
+    /**
+     * Blocks until the core service answers or the timeout has elapsed.
+     * In contrast to {@link #checkConnection()}, the call waits for the connection to become ready
+     * instead of failing immediately while the service is not listening yet.
+     */
+    public boolean awaitReady(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        // the service may just have started listening, do not wait for the next reconnect attempt
+        channel.resetConnectBackoff();
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            try {
+                client.withWaitForReady()
+                        .withDeadlineAfter(remaining, TimeUnit.NANOSECONDS)
+                        .getStatus(Core.GetStatusRequest.newBuilder().build());
+                return true;
+            } catch (StatusRuntimeException e) {
+                if (e.getStatus().getCode() != Status.Code.DEADLINE_EXCEEDED && e.getStatus().getCode() != Status.Code.UNAVAILABLE) {
+                    // the service has answered
+                    return true;
+                }
+            }
         }
     }
 
@@ -60,7 +266,14 @@ public class CoreServiceClient {
     }
 
     public void shutdownService() {
-        this.client.requestShutdown(Core.ShutdownRequest.newBuilder().setReason("CLI Request: PID=" + ProcessHandle.current().pid()).setGracePeriodInS(1).build());
+        shutdownService(1);
+    }
+
+    /**
+     * @param gracePeriodInS time the service has for completing the requests in progress
+     */
+    public void shutdownService(int gracePeriodInS) {
+        this.client.requestShutdown(Core.ShutdownRequest.newBuilder().setReason("CLI Request: PID=" + ProcessHandle.current().pid()).setGracePeriodInS(gracePeriodInS).build());
     }
 
     public Dto.CorrLangTechSpaces listTechspaces() {
@@ -115,10 +328,14 @@ public class CoreServiceClient {
         Ccp.Correspondence corr = client.getCorrespondence(Core.GetCorrespondenceRequest.newBuilder()
                 .setCorrespondenceId(correspondence)
                 .build());
-        List<String> endpointNames = new ArrayList<>();
+        // resolve all endpoints concurrently, i.e. the lookup takes as long as the slowest call
+        List<ListenableFuture<Ccp.Endpoint>> endpointLookups = new ArrayList<>();
         for (Integer eid : corr.getEndpointsList()) {
-            endpointNames.add(client.getEndpoint(Core.GetEndpointRequest.newBuilder().setEndpointId(eid).build()).getName());
+            endpointLookups.add(futureClient.getEndpoint(Core.GetEndpointRequest.newBuilder().setEndpointId(eid).build()));
         }
+        List<String> endpointNames = await(Futures.allAsList(endpointLookups)).stream()
+                .map(Ccp.Endpoint::getName)
+                .toList();
         return new Dto.CorrespondenceDetails(
                 corr.getProject(),
                 corr.getName(),
@@ -128,23 +345,40 @@ public class CoreServiceClient {
     }
 
     public Dto.ViewDetails getViewInfo(int view) {
-        Ccp.View viewObject = client.getView(Core.GetViewRequest.newBuilder().setViewId(view).build());
-        String corrName  = client.getCorrespondence(Core.GetCorrespondenceRequest.newBuilder().setCorrespondenceId(viewObject.getCorrespondence()).build()).getName();
-        return new Dto.ViewDetails(
-                viewObject.getProject(),
-                viewObject.getName(),
-                viewObject.getId(),
-                corrName,
-                viewObject.getType().name()
-        );
+        // the correspondence can only be resolved once the view is known, hence the calls are chained asynchronously
+        ListenableFuture<Dto.ViewDetails> details = Futures.transformAsync(
+                futureClient.getView(Core.GetViewRequest.newBuilder().setViewId(view).build()),
+                viewObject -> Futures.transform(
+                        futureClient.getCorrespondence(Core.GetCorrespondenceRequest.newBuilder().setCorrespondenceId(viewObject.getCorrespondence()).build()),
+                        corr -> new Dto.ViewDetails(
+                                viewObject.getProject(),
+                                viewObject.getName(),
+                                viewObject.getId(),
+                                corr.getName(),
+                                viewObject.getType().name()
+                        ),
+                        MoreExecutors.directExecutor()),
+                MoreExecutors.directExecutor());
+        return await(details);
     }
 
     public Dto.CorrSpecMerged applyCorrSpec(String project, String basePath, String corrSpecPath) {
+        return toCorrSpecMerged(corrSpecPath, mergeCorrSpec(project, basePath, corrSpecPath));
+    }
+
+    @Override
+    public Core.ParseResponse mergeCorrSpec(String project, String basePath, String corrSpecPath) {
         Core.ParseResponse response = client.mergeCorrSpec(Core.MergeCorrSpecRequest.newBuilder()
                 .setProject(project)
                 .setBasePath(basePath)
                 .setCorrSpec(corrSpecPath)
                 .build());
+        // merging may have created or removed arbitrary objects
+        registry.invalidate();
+        return response;
+    }
+
+    static Dto.CorrSpecMerged toCorrSpecMerged(String corrSpecPath, Core.ParseResponse response) {
         List<Dto.Message> errors = new ArrayList<>();
         List<Dto.Message> warnings = new ArrayList<>();
         List<Dto.Action> actions = new ArrayList<>();
@@ -156,13 +390,13 @@ public class CoreServiceClient {
         }
         for (Core.ParseAction act : response.getActionsList()) {
             if (act.hasSchemaWritten()) {
-                actions.add(new Dto.Action("Wrote schema to '" + act.getSchemaWritten().getFilePath() + "' using '" + act.getTech() + "'."));
+                actions.add(new Dto.Action("Wrote schema to '" + act.getSchemaWritten().getFilePath() + "' using '" + act.getTech() + "'.", act.getSchemaWritten().getFilePath()));
             } else if (act.hasDataWritten()) {
-                actions.add(new Dto.Action("Wrote data to '" + act.getDataWritten().getFilePath() + "' using '" + act.getTech() + "'."));
+                actions.add(new Dto.Action("Wrote data to '" + act.getDataWritten().getFilePath() + "' using '" + act.getTech() + "'.", act.getDataWritten().getFilePath()));
             } else if (act.hasProtListen()) {
-                actions.add(new Dto.Action("Is listening on port '" + act.getProtListen().getPort() + "' using '" + act.getTech() + "'."));
+                actions.add(new Dto.Action("Is listening on port '" + act.getProtListen().getPort() + "' using '" + act.getTech() + "'.", null));
             } else if (act.hasUrlListen()) {
-                actions.add(new Dto.Action("Is listening on <" + act.getUrlListen().getUrl() + "> using '" + act.getTech() + "'."));
+                actions.add(new Dto.Action("Is listening on <" + act.getUrlListen().getUrl() + "> using '" + act.getTech() + "'.", null));
             }
         }
         return new Dto.CorrSpecMerged(corrSpecPath, errors, warnings, actions);
@@ -181,221 +415,425 @@ public class CoreServiceClient {
                 .setProject(projectName)
                 .setType(t)
                 .build());
+        registry.add(Ccp.CorrLangObject.newBuilder()
+                .setId(reg.getId())
+                .setObjectType(Ccp.CorrLangObjectType.ENDPOINT)
+                .setProject(projectName)
+                .setName(endpointName)
+                .build());
         return new Dto.CorrLangObjectCreated(projectName, endpointName, reg.getId(), "endpoint");
     }
 
-    public Dto.CorrLangObjectUpdated applyAddEndpointSchema(int endpoint, String techSpaceName, File schemaFile) {
-        for (Ccp.CorrLangObject o : client.getObjects(Core.GetObjectsRequest.newBuilder()
-                .setObjectType(Ccp.CorrLangObjectType.ENDPOINT).build()).getObjectsList()) {
-            if (o.getId() == endpoint) {
-                Ccp.Ack ack = client.registerEndpointSchema(Core.RegisterEndpointSchemaRequest.newBuilder()
-                        .setEndpointId(endpoint)
-                        .setTechSpace(techSpaceName)
-                        .setFileLocation(schemaFile.getAbsolutePath())
-                        .build());
-                return new Dto.CorrLangObjectUpdated(
-                        o.getProject(),
-                        o.getName(),
-                        o.getId(),
-                        "endpoint"
-                );
-            }
-        }
-        throw new IllegalArgumentException("Endpoint with oid:'" + endpoint + "' not found!");
+    @Override
+    public Dto.CorrLangObjectUpdated applyAddEndpointSchema(int endpoint, String techSpaceName, File schemaFile) throws IOException {
+        Ccp.CorrLangObject o = requireEndpoint(endpoint);
+        Ccp.Ack ack = client.registerEndpointSchema(Core.RegisterEndpointSchemaRequest.newBuilder()
+                .setEndpointId(endpoint)
+                .setTechSpace(techSpaceName)
+                .setFileLocation(fileLocation(schemaFile.toPath()))
+                .build());
+        return new Dto.CorrLangObjectUpdated(
+                o.getProject(),
+                o.getName(),
+                o.getId(),
+                "endpoint"
+        );
     }
 
     public Dto.CorrLangObjectUpdated applyAddEndpointSchemaURL(int endpoint, String techSpaceName, String schemaURL) {
-        for (Ccp.CorrLangObject o : client.getObjects(Core.GetObjectsRequest.newBuilder()
-                .setObjectType(Ccp.CorrLangObjectType.ENDPOINT).build()).getObjectsList()) {
-            if (o.getId() == endpoint) {
-                Ccp.Ack ack = client.registerEndpointSchema(Core.RegisterEndpointSchemaRequest.newBuilder()
-                        .setEndpointId(endpoint)
+        Ccp.CorrLangObject o = requireEndpoint(endpoint);
+        Ccp.Ack ack = client.registerEndpointSchema(Core.RegisterEndpointSchemaRequest.newBuilder()
+                .setEndpointId(endpoint)
+                .setTechSpace(techSpaceName)
+                .setUrl(schemaURL)
+                .build());
+        return new Dto.CorrLangObjectUpdated(
+                o.getProject(),
+                o.getName(),
+                o.getId(),
+                "endpoint"
+        );
+    }
+
+    @Override
+    public Dto.CorrLangObjectUpdated applyAddEndpointData(int endpoint, String techSpaceName, File dataPath) throws IOException {
+        Ccp.CorrLangObject o = requireEndpoint(endpoint);
+        Ccp.Dataset dataset = client.registerEndpointDataset(
+                Core.RegisterEndpointDatasetRequest.newBuilder()
+                        .setFileLocation(fileLocation(dataPath.toPath()))
                         .setTechSpace(techSpaceName)
-                        .setUrl(schemaURL)
+                        .setEndpointId(endpoint)
                         .build());
-                return new Dto.CorrLangObjectUpdated(
-                        o.getProject(),
-                        o.getName(),
-                        o.getId(),
-                        "endpoint"
-                );
-            }
-        }
-        throw new IllegalArgumentException("Endpoint with oid:'" + endpoint + "' not found!");
-    }
-
-    public Dto.CorrLangObjectUpdated applyAddEndpointData(int endpoint, String techSpaceName, File dataPath) {
-        for (Ccp.CorrLangObject o : client.getObjects(Core.GetObjectsRequest.newBuilder()
-                .setObjectType(Ccp.CorrLangObjectType.ENDPOINT).build()).getObjectsList()) {
-            if (o.getId() == endpoint) {
-                Ccp.Dataset dataset = client.registerEndpointDataset(
-                        Core.RegisterEndpointDatasetRequest.newBuilder()
-                                .setFileLocation(dataPath.getAbsolutePath())
-                                .setTechSpace(techSpaceName)
-                                .setEndpointId(endpoint)
-                                .build());
-                return new Dto.CorrLangObjectUpdated(
-                        o.getProject(),
-                        o.getName(),
-                        o.getId(),
-                        "endpoint"
-                );
-            }
-        }
-        throw new IllegalArgumentException("Endpoint with oid:'" + endpoint + "' not found!");
+        return new Dto.CorrLangObjectUpdated(
+                o.getProject(),
+                o.getName(),
+                o.getId(),
+                "endpoint"
+        );
     }
 
     public Dto.CorrLangObjectUpdated applyAddEndpointDataURL(int endpoint, String techSpaceName, String url) {
-        for (Ccp.CorrLangObject o : client.getObjects(Core.GetObjectsRequest.newBuilder()
-                .setObjectType(Ccp.CorrLangObjectType.ENDPOINT).build()).getObjectsList()) {
-            if (o.getId() == endpoint) {
-                Ccp.Dataset dataset = client.registerEndpointDataset(
-                        Core.RegisterEndpointDatasetRequest.newBuilder()
-                                .setUrl(url)
-                                .setTechSpace(techSpaceName)
-                                .setEndpointId(endpoint)
-                                .build());
-                return new Dto.CorrLangObjectUpdated(
-                        o.getProject(),
-                        o.getName(),
-                        o.getId(),
-                        "endpoint"
-                );
-            }
-        }
-        throw new IllegalArgumentException("Endpoint with oid:'" + endpoint + "' not found!");
+        Ccp.CorrLangObject o = requireEndpoint(endpoint);
+        Ccp.Dataset dataset = client.registerEndpointDataset(
+                Core.RegisterEndpointDatasetRequest.newBuilder()
+                        .setUrl(url)
+                        .setTechSpace(techSpaceName)
+                        .setEndpointId(endpoint)
+                        .build());
+        return new Dto.CorrLangObjectUpdated(
+                o.getProject(),
+                o.getName(),
+                o.getId(),
+                "endpoint"
+        );
     }
 
     public Dto.CorrLangObjectUpdated applyAddEndpointServiceURL(int endpoint, String techSpaceName, String serviceURL) throws URISyntaxException, MalformedURLException {
         URL url = new URI(serviceURL).toURL();
-        for (Ccp.CorrLangObject o : client.getObjects(Core.GetObjectsRequest.newBuilder()
-                .setObjectType(Ccp.CorrLangObjectType.ENDPOINT).build()).getObjectsList()) {
-            if (o.getId() == endpoint) {
-                Ccp.Ack ack = client.registerEndpointServiceAddress(Core.RegisterEndpointServiceAddressRequest.newBuilder()
-                        .setServiceAddress(Ccp.ServiceAddress.newBuilder()
-                                .setUrl(serviceURL)
-                                .setPort(url.getPort())
-                                .setHostname(url.getHost())
-                                .setIsUdp(false)
-                                .setIsTls(url.getProtocol().startsWith("https"))
-                        )
-                        .setEndpointId(endpoint)
-                        .setTechSpace(techSpaceName)
-                        .build());
-                return new Dto.CorrLangObjectUpdated(
-                        o.getProject(),
-                        o.getName(),
-                        o.getId(),
-                        "endpoint"
-                );
-            }
-        }
-        throw new IllegalArgumentException("Endpoint with oid:'" + endpoint + "' not found!");
+        Ccp.CorrLangObject o = requireEndpoint(endpoint);
+        Ccp.Ack ack = client.registerEndpointServiceAddress(Core.RegisterEndpointServiceAddressRequest.newBuilder()
+                .setServiceAddress(Ccp.ServiceAddress.newBuilder()
+                        .setUrl(serviceURL)
+                        .setPort(url.getPort())
+                        .setHostname(url.getHost())
+                        .setIsUdp(false)
+                        .setIsTls(url.getProtocol().startsWith("https"))
+                )
+                .setEndpointId(endpoint)
+                .setTechSpace(techSpaceName)
+                .build());
+        return new Dto.CorrLangObjectUpdated(
+                o.getProject(),
+                o.getName(),
+                o.getId(),
+                "endpoint"
+        );
     }
 
     public Dto.CorrLangObjectUpdated applyAddEndpointSocket(int endpoint, String techSpaceName, String host, int port) {
-        for (Ccp.CorrLangObject o : client.getObjects(Core.GetObjectsRequest.newBuilder()
-                .setObjectType(Ccp.CorrLangObjectType.ENDPOINT).build()).getObjectsList()) {
-            if (o.getId() == endpoint) {
-                Ccp.Ack ack = client.registerEndpointServiceAddress(Core.RegisterEndpointServiceAddressRequest.newBuilder()
-                        .setServiceAddress(
-                                Ccp.ServiceAddress.newBuilder()
-                                                .setIsUdp(false).setIsTls(false).setHostname(host).setPort(port)
-                                .build())
-                        .setEndpointId(endpoint)
-                        .setTechSpace(techSpaceName)
-                        .build());
-                return new Dto.CorrLangObjectUpdated(
-                        o.getProject(),
-                        o.getName(),
-                        o.getId(),
-                        "endpoint"
-                );
-            }
-        }
-        throw new IllegalArgumentException("Endpoint with oid:'" + endpoint + "' not found!");
+        Ccp.CorrLangObject o = requireEndpoint(endpoint);
+        Ccp.Ack ack = client.registerEndpointServiceAddress(Core.RegisterEndpointServiceAddressRequest.newBuilder()
+                .setServiceAddress(
+                        Ccp.ServiceAddress.newBuilder()
+                                        .setIsUdp(false).setIsTls(false).setHostname(host).setPort(port)
+                        .build())
+                .setEndpointId(endpoint)
+                .setTechSpace(techSpaceName)
+                .build());
+        return new Dto.CorrLangObjectUpdated(
+                o.getProject(),
+                o.getName(),
+                o.getId(),
+                "endpoint"
+        );
     }
 
     public Dto.CorrLangSchemaExported exportEndpointSchema(String project, String endpoint, String techSpace, Path targetFile) {
-        for (Ccp.CorrLangObject o : client.getObjects(Core.GetObjectsRequest.newBuilder()
-                .setObjectType(Ccp.CorrLangObjectType.ENDPOINT)
-                .setProject(project).build()).getObjectsList()) {
-            if (o.getName().equals(endpoint)) {
-                int endpointId = o.getId();
-                Ccp.Ack ack = client.writeSchema(Core.WriteSchemaRequest.newBuilder()
-                        .setEndpointId(endpointId)
-                        .setTechSpace(techSpace)
-                        .setFileLocation(targetFile.toAbsolutePath().toString()).build()
-                );
-                return new Dto.CorrLangSchemaExported(targetFile.toAbsolutePath().toString());
+        Ccp.CorrLangObject o = registry.find(project, Ccp.CorrLangObjectType.ENDPOINT, endpoint)
+                .orElseThrow(() -> new IllegalArgumentException("Endpoint '" + endpoint + "' not found in project '" + project + "'!"));
+        Ccp.Ack ack = client.writeSchema(Core.WriteSchemaRequest.newBuilder()
+                .setEndpointId(o.getId())
+                .setTechSpace(techSpace)
+                .setFileLocation(targetFile.toAbsolutePath().toString()).build()
+        );
+        return new Dto.CorrLangSchemaExported(targetFile.toAbsolutePath().toString());
+    }
 
+    /**
+     * Fetches the schema of an endpoint unless the cached version is still up-to-date.
+     * Schemas that exceed the max. inbound message size are fetched again in chunks.
+     */
+    public Dto.CorrLangSchema getSchema(String project, String endpoint) {
+        Ccp.CorrLangObject o = registry.find(project, Ccp.CorrLangObjectType.ENDPOINT, endpoint)
+                .orElseThrow(() -> new IllegalArgumentException("Endpoint '" + endpoint + "' not found in project '" + project + "'!"));
+        Core.GetSchemaRequest request = Core.GetSchemaRequest.newBuilder()
+                .setEndpointId(o.getId())
+                .build();
+        String fingerprint = getSchemaFingerprint(request);
+        if (fingerprint != null) {
+            Optional<Ccp.Schema> cached = schemaCache.load(o.getId(), fingerprint);
+            if (cached.isPresent()) {
+                return toSchemaDto(o, cached.get(), false, true);
             }
         }
-        throw new IllegalArgumentException("Endpoint '" + endpoint + "' not found in project '" + project + "'!");
-    }
-
-    public Optional<Integer> getEndpointId(String project, String endpoint) {
-        Core.GetObjectsRequest.Builder request = Core.GetObjectsRequest.newBuilder()
-                .setObjectType(Ccp.CorrLangObjectType.ENDPOINT);
-        if (project != null) {
-            request.setProject(project);
+        Ccp.Schema schema;
+        try {
+            schema = ClientCalls.blockingUnaryCall(client.getChannel(), getSchemaMethod, client.getCallOptions(), request);
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() != Status.Code.RESOURCE_EXHAUSTED) {
+                throw e;
+            }
+            return getSchemaChunked(o, request.toBuilder().setMaxChunkSize(config.chunkSize()).build(), fingerprint);
         }
-        Core.GetObjectsResponse endpoints = this.client.getObjects(request.build());
-        for (Ccp.CorrLangObject o : endpoints.getObjectsList()) {
-            if (o.getName().equals(endpoint)) {
-                return Optional.of(o.getId());
+        try {
+            if (fingerprint != null) {
+                cacheSchema(o.getId(), fingerprint, schema.toByteString());
             }
+            return toSchemaDto(o, schema, false, false);
+        } finally {
+            schemaMarshaller.release(schema);
         }
-        return Optional.empty();
     }
 
-    public Optional<Integer> getCorrespondenceId(String project, String correspondence) {
-        Core.GetObjectsRequest.Builder request = Core.GetObjectsRequest.newBuilder()
-                .setObjectType(Ccp.CorrLangObjectType.CORRESPONDENCE);
-        if (project != null) {
-            request.setProject(project);
-        }
-        Core.GetObjectsResponse endpoints = this.client.getObjects(request.build());
-        for (Ccp.CorrLangObject o : endpoints.getObjectsList()) {
-            if (o.getName().equals(correspondence)) {
-                return Optional.of(o.getId());
+    private Dto.CorrLangSchema getSchemaChunked(Ccp.CorrLangObject o, Core.GetSchemaRequest request, @Nullable String fingerprint) {
+        List<Ccp.BinaryData> chunks = new ArrayList<>();
+        try {
+            Iterator<Ccp.BinaryData> it = ClientCalls.blockingServerStreamingCall(client.getChannel(), getSchemaChunkedMethod, client.getCallOptions(), request);
+            while (it.hasNext()) {
+                chunks.add(it.next());
+            }
+            // the chunks are concatenated without copying
+            ByteString content = ByteString.copyFrom(Lists.transform(chunks, Ccp.BinaryData::getContent));
+            CodedInputStream input = content.newCodedInput();
+            input.enableAliasing(config.zeroCopy());
+            input.setSizeLimit(Integer.MAX_VALUE);
+            Ccp.Schema schema = Ccp.Schema.parseFrom(input);
+            if (fingerprint != null) {
+                cacheSchema(o.getId(), fingerprint, content);
             }
+            return toSchemaDto(o, schema, true, false);
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.UNIMPLEMENTED) {
+                throw new IllegalStateException("The schema exceeds the max. message size (" + config.maxInboundMessageSize() +
+                        " bytes) and the running CorrLang core service does not support chunked transfer (requires API version >= " +
+                        MIN_API_VERSION_CHUNKED_SCHEMA + ")! Consider raising 'maxInboundMessageSize' in the [client] configuration.");
+            }
+            throw e;
+        } catch (IOException e) {
+            throw new IllegalStateException("Received a corrupt schema from the CorrLang core service!", e);
+        } finally {
+            chunks.forEach(chunkMarshaller::release);
         }
-        return Optional.empty();
     }
 
-    public Optional<Integer> getViewId(String project, String view) {
-        Core.GetObjectsRequest.Builder request = Core.GetObjectsRequest.newBuilder()
-                .setObjectType(Ccp.CorrLangObjectType.VIEW);
-        if (project != null) {
-            request.setProject(project);
+    /**
+     * Copies everything needed out of the schema, i.e. the schema itself can be released afterward.
+     */
+    private static Dto.CorrLangSchema toSchemaDto(Ccp.CorrLangObject o, Ccp.Schema schema, boolean chunked, boolean cached) {
+        List<Dto.CorrLangSchema.SchemaElement> elements = new ArrayList<>();
+        for (Ccp.SchemaElement element : schema.getElementsList()) {
+            elements.add(new Dto.CorrLangSchema.SchemaElement(
+                    element.getElementType().name(),
+                    String.join(".", element.getFullyQualifiedName().getPartsList())));
         }
-        Core.GetObjectsResponse endpoints = this.client.getObjects(request.build());
-        for (Ccp.CorrLangObject o : endpoints.getObjectsList()) {
-            if (o.getName().equals(view)) {
-                return Optional.of(o.getId());
+        return new Dto.CorrLangSchema(o.getProject(), o.getName(), schema.getId(), schema.getName(), elements, chunked, cached);
+    }
+
+    /**
+     * Returns the current fingerprint of an endpoint's schema or null if there is nothing to validate the cache against.
+     */
+    @Nullable
+    private String getSchemaFingerprint(Core.GetSchemaRequest request) {
+        if (schemaCache == null || !schemaFingerprintsSupported) {
+            return null;
+        }
+        try {
+            Core.SchemaFingerprint fingerprint = client.getSchemaFingerprint(request);
+            return fingerprint.hasFingerprint() ? fingerprint.getFingerprint() : null;
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.UNIMPLEMENTED) {
+                schemaFingerprintsSupported = false;
+                return null;
             }
+            throw e;
+        }
+    }
+
+    private void cacheSchema(int endpointId, String fingerprint, ByteString serializedSchema) {
+        try {
+            schemaCache.store(endpointId, fingerprint, serializedSchema);
+        } catch (IOException e) {
+            // caching is best effort, the schema is simply fetched again next time
         }
-        return Optional.empty();
     }
 
-    public Dto.CorrLangObjects listAll(String project) {
+    @Override
+    public Ccp.CorrLangObject requireEndpoint(int endpoint) {
+        return registry.find(endpoint)
+                .filter(o -> o.getObjectType() == Ccp.CorrLangObjectType.ENDPOINT)
+                .orElseThrow(() -> new IllegalArgumentException("Endpoint with oid:'" + endpoint + "' not found!"));
+    }
+
+    public Optional<Integer> getEndpointId(String project, String endpoint) {
+        return registry.find(project, Ccp.CorrLangObjectType.ENDPOINT, endpoint).map(Ccp.CorrLangObject::getId);
+    }
+
+    public Optional<Integer> getCorrespondenceId(String project, String correspondence) {
+        return registry.find(project, Ccp.CorrLangObjectType.CORRESPONDENCE, correspondence).map(Ccp.CorrLangObject::getId);
+    }
+
+    public Optional<Integer> getViewId(String project, String view) {
+        return registry.find(project, Ccp.CorrLangObjectType.VIEW, view).map(Ccp.CorrLangObject::getId);
+    }
+
+    /**
+     * Streams the registered objects (of a project), such that they can be processed while they are still arriving.
+     * Falls back to a single GetObjects call for services that do not offer StreamObjects.
+     *
+     * @param namePrefix if given, only the objects whose name starts with it
+     */
+    public Dto.CorrLangObjectStream listAll(String project, @Nullable String namePrefix) {
         Core.GetObjectsRequest.Builder builder = Core.GetObjectsRequest.newBuilder();
         if (project != null) {
             builder.setProject(project);
         }
-        Core.GetObjectsResponse response = this.client.getObjects(builder.build());
-        return new Dto.CorrLangObjects(response.getObjectsList().stream().map(ob ->
+        if (namePrefix != null) {
+            builder.setNamePrefix(namePrefix);
+        }
+        Core.GetObjectsRequest request = builder.build();
+        Iterator<Ccp.CorrLangObject> objects = this.client.streamObjects(request);
+        try {
+            // the first read surfaces whether the service knows the method
+            objects.hasNext();
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() != Status.Code.UNIMPLEMENTED) {
+                throw e;
+            }
+            objects = this.client.getObjects(request).getObjectsList().iterator();
+        }
+        if (namePrefix != null) {
+            // services before API version 3 ignore the filter
+            objects = Iterators.filter(objects, ob -> ob.getName().startsWith(namePrefix));
+        }
+        return new Dto.CorrLangObjectStream(Iterators.transform(objects, ob ->
                 new Dto.CorrLangObject(
                         ob.getObjectType().name().toLowerCase(),
                         ob.getProject(),
                         ob.getName(),
                         ob.getId()
-                )).toList());
+                )));
+    }
+
+    /**
+     * Applies all registrations of a batch manifest atomically in a single round trip.
+     * The manifest is a `BatchRequest` in protobuf text format. Relative file locations are resolved against
+     * the directory of the manifest and registrations without a project are assigned to the given project.
+     */
+    public Dto.CorrLangBatchApplied applyBatch(String project, Path manifest) throws IOException {
+        Core.BatchRequest.Builder batch = Core.BatchRequest.newBuilder();
+        try (Reader reader = Files.newBufferedReader(manifest)) {
+            TextFormat.merge(reader, batch);
+        }
+        Path baseDir = manifest.toAbsolutePath().getParent();
+        for (Core.BatchOperation.Builder op : batch.getOperationsBuilderList()) {
+            switch (op.getOperationCase()) {
+                case REGISTERENDPOINT -> {
+                    if (!op.getRegisterEndpointBuilder().hasProject()) {
+                        op.getRegisterEndpointBuilder().setProject(project);
+                    }
+                }
+                case REGISTERCORRESPONDENCE -> {
+                    if (!op.getRegisterCorrespondenceBuilder().hasProject()) {
+                        op.getRegisterCorrespondenceBuilder().setProject(project);
+                    }
+                }
+                case REGISTERVIEW -> {
+                    if (!op.getRegisterViewBuilder().hasProject()) {
+                        op.getRegisterViewBuilder().setProject(project);
+                    }
+                }
+                case REGISTERENDPOINTSCHEMA -> {
+                    Core.RegisterEndpointSchemaRequest.Builder schema = op.getRegisterEndpointSchemaBuilder();
+                    if (schema.hasFileLocation()) {
+                        schema.setFileLocation(fileLocation(baseDir.resolve(schema.getFileLocation())));
+                    }
+                }
+                case REGISTERENDPOINTDATASET -> {
+                    Core.RegisterEndpointDatasetRequest.Builder dataset = op.getRegisterEndpointDatasetBuilder();
+                    if (dataset.hasFileLocation()) {
+                        dataset.setFileLocation(fileLocation(baseDir.resolve(dataset.getFileLocation())));
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        Core.BatchResponse response;
+        try {
+            response = client.applyBatch(batch.build());
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.UNIMPLEMENTED) {
+                throw new IllegalStateException("The running CorrLang core service does not support batch operations (requires API version >= " + MIN_API_VERSION_BATCH + ")!");
+            }
+            throw e;
+        } finally {
+            registry.invalidate();
+        }
+        List<Dto.CorrLangObjectCreated> created = new ArrayList<>();
+        for (Core.BatchResult result : response.getResultsList()) {
+            if (result.hasEndpoint()) {
+                created.add(new Dto.CorrLangObjectCreated(result.getEndpoint().getProject(), result.getEndpoint().getName(), result.getEndpoint().getId(), "endpoint"));
+            } else if (result.hasCorrespondence()) {
+                created.add(new Dto.CorrLangObjectCreated(result.getCorrespondence().getProject(), result.getCorrespondence().getName(), result.getCorrespondence().getId(), "correspondence"));
+            } else if (result.hasView()) {
+                created.add(new Dto.CorrLangObjectCreated(result.getView().getProject(), result.getView().getName(), result.getView().getId(), "view"));
+            }
+        }
+        return new Dto.CorrLangBatchApplied(batch.getOperationsCount(), created, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Streams tree data events to the core service on behalf of the given endpoint.
+     * The source is expected to contain a sequence of length-delimited `ccp.TreeData` messages,
+     * the endpoint id of each event is set by the client.
+     */
+    public Dto.CorrLangDataPushed pushData(int endpoint, InputStream source) throws IOException {
+        Ccp.CorrLangObject o = requireEndpoint(endpoint);
+        FlowControlledSender<Ccp.TreeData, Ccp.Ack> sender = new FlowControlledSender<>(() -> {
+            Ccp.TreeData.Builder event = Ccp.TreeData.newBuilder();
+            if (!event.mergeDelimitedFrom(source)) {
+                return null;
+            }
+            return event.setEndpointId(endpoint).build();
+        });
+        long start = System.nanoTime();
+        asyncClient.withCompression(config.compression()).pushData(sender);
+        Ccp.Ack ack = sender.await();
+        return new Dto.CorrLangDataPushed(
+                o.getProject(),
+                o.getName(),
+                sender.getMessages(),
+                sender.getBytes(),
+                Duration.ofNanos(System.nanoTime() - start),
+                ack != null && ack.hasMessage() ? ack.getMessage() : null
+        );
+    }
+
+    /**
+     * The location of a local file as seen by the core service: the absolute path if the service runs on the same host,
+     * otherwise the file is uploaded first.
+     */
+    private String fileLocation(Path file) throws IOException {
+        if (!remote) {
+            return file.toAbsolutePath().toString();
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Only single files can be uploaded to a CorrLang core service on another host, '" + file + "' is not a file!");
+        }
+        return uploadFile(file);
+    }
+
+    /**
+     * Uploads a file in chunks and returns its location at the core service.
+     */
+    public String uploadFile(Path file) throws IOException {
+        try (MappedFileSource source = new MappedFileSource(file, config.chunkSize())) {
+            FlowControlledSender<Core.UploadFileRequest, Core.UploadFileResponse> sender = new FlowControlledSender<>(source);
+            asyncClient.withCompression(config.compression()).uploadFile(sender);
+            return sender.await().getFileLocation();
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.UNIMPLEMENTED) {
+                throw new IllegalStateException("The running CorrLang core service does not support file uploads (requires API version >= " + MIN_API_VERSION_UPLOAD + ")!");
+            }
+            throw e;
+        }
     }
 
     public void removeEndpoint(int eid) {
         client.deregisterObject(Core.DeregisterObjectRequest.newBuilder()
                 .setObjectId(eid).build());
+        registry.invalidate();
     }
 }
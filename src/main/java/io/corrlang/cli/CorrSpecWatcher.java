@@ -0,0 +1,210 @@
+package io.corrlang.cli;
+
+import io.grpc.StatusRuntimeException;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Watches a CorrSpec and the files it references (schemas, data) and merges it again whenever
+ * the content of one of them has changed. Bursts of change events (e.g. editors writing a file in several steps)
+ * are debounced, and files written by the core service while merging do not trigger another merge.
+ * A failed merge is reported and the watcher keeps going with the previous result.
+ */
+class CorrSpecWatcher {
+
+    /**
+     * Files are referenced from within CorrSpecs as quoted paths.
+     */
+    private static final Pattern QUOTED = Pattern.compile("\"([^\"\\r\\n]+)\"");
+
+    private final CoreServiceClient client;
+
+    private final String project;
+
+    private final Path baseDir;
+
+    private final Path corrSpec;
+
+    private final Duration debounce;
+
+    private final Map<Path, String> hashes = new HashMap<>();
+
+    private final Set<Path> writtenByService = new HashSet<>();
+
+    CorrSpecWatcher(CoreServiceClient client, String project, Path baseDir, Path corrSpec, Duration debounce) {
+        this.client = client;
+        this.project = project;
+        this.baseDir = baseDir;
+        this.corrSpec = corrSpec;
+        this.debounce = debounce;
+    }
+
+    /**
+     * Merges the CorrSpec and keeps watching until the thread is interrupted.
+     */
+    public void run() throws IOException {
+        Dto.CorrSpecMerged last = merge();
+        last.print();
+        Set<Path> watched = watchedFiles();
+        updateHashes(watched);
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            Set<Path> registeredDirs = new HashSet<>();
+            register(watchService, watched, registeredDirs);
+            System.out.println("Watching " + watched.size() + " file(s) for changes, press Ctrl+C to stop...");
+            while (!Thread.currentThread().isInterrupted()) {
+                if (!awaitChanges(watchService, watched)) {
+                    continue;
+                }
+                List<Path> changed = updateHashes(watched);
+                if (changed.isEmpty()) {
+                    // touched but not modified
+                    continue;
+                }
+                try {
+                    Dto.CorrSpecMerged current = merge();
+                    new Dto.CorrSpecRemerged(Instant.now(), changed, last, current).print();
+                    last = current;
+                } catch (StatusRuntimeException e) {
+                    // e.g. a syntax error that is about to be fixed, the previous result stays in place
+                    System.err.println("[" + Instant.now() + "] Merging failed, keeping the previous result: " + Runner.failureMessage(e));
+                }
+                // the CorrSpec may reference other files now
+                watched = watchedFiles();
+                updateHashes(watched);
+                register(watchService, watched, registeredDirs);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Dto.CorrSpecMerged merge() {
+        Dto.CorrSpecMerged result = client.applyCorrSpec(project, baseDir.toString(), baseDir.relativize(corrSpec).toString());
+        writtenByService.clear();
+        for (Dto.Action action : result.actions()) {
+            if (action.writtenFile() != null) {
+                writtenByService.add(baseDir.resolve(action.writtenFile()).toAbsolutePath().normalize());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Blocks until a watched file has been changed and no further event arrived for the debounce period.
+     * Returns false if the events did not concern any watched file.
+     */
+    private boolean awaitChanges(WatchService watchService, Set<Path> watched) throws InterruptedException {
+        boolean relevant = collect(watchService.take(), watched);
+        WatchKey next;
+        while ((next = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+            relevant |= collect(next, watched);
+        }
+        return relevant;
+    }
+
+    private boolean collect(WatchKey key, Set<Path> watched) {
+        boolean relevant = false;
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+            } else if (event.context() instanceof Path name && watched.contains(dir.resolve(name))) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    private static void register(WatchService watchService, Set<Path> files, Set<Path> registeredDirs) throws IOException {
+        for (Path file : files) {
+            Path dir = file.getParent();
+            if (registeredDirs.add(dir)) {
+                dir.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+
+    /**
+     * The CorrSpec itself and every existing file it references,
+     * except for the files that the core service has written when merging.
+     */
+    private Set<Path> watchedFiles() throws IOException {
+        Set<Path> result = new LinkedHashSet<>();
+        result.add(corrSpec);
+        for (Path file : referencedFiles(baseDir, corrSpec)) {
+            if (!writtenByService.contains(file)) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The existing files that are referenced from within the CorrSpec (as absolute, normalized paths).
+     */
+    static Set<Path> referencedFiles(Path baseDir, Path corrSpec) throws IOException {
+        Set<Path> result = new LinkedHashSet<>();
+        if (!Files.exists(corrSpec)) {
+            return result;
+        }
+        Matcher matcher = QUOTED.matcher(Files.readString(corrSpec));
+        while (matcher.find()) {
+            try {
+                Path file = baseDir.resolve(matcher.group(1)).toAbsolutePath().normalize();
+                if (Files.isRegularFile(file)) {
+                    result.add(file);
+                }
+            } catch (RuntimeException ignored) {
+                // not a path
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Recomputes the content hashes of the given files and returns the files whose content has changed.
+     */
+    private List<Path> updateHashes(Set<Path> files) throws IOException {
+        List<Path> changed = new ArrayList<>();
+        for (Path file : files) {
+            String hash;
+            try {
+                hash = ContentHashes.of(file);
+            } catch (NoSuchFileException e) {
+                hash = null;
+            }
+            String previous = hashes.put(file, hash);
+            if (!Objects.equals(previous, hash)) {
+                changed.add(file);
+            }
+        }
+        hashes.keySet().retainAll(files);
+        return changed;
+    }
+}
@@ -0,0 +1,209 @@
+package io.corrlang.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Installs a release file by file according to its {@link ReleaseManifest}: files that are already part of
+ * an installed version (same hash) are hard-linked from there, and only the missing or changed files are downloaded,
+ * concurrently. Since the jars of consecutive versions are mostly identical, an update only transfers what has changed.
+ */
+class DeltaUpdate {
+
+    private static final int MAX_CONCURRENT_DOWNLOADS = 8;
+
+    private static final String SCRIPTS_DIR = "bin/";
+
+    /**
+     * @param linked     number of files taken from installed versions
+     * @param downloaded number of files that have been downloaded
+     */
+    record Result(int linked, long linkedBytes, int downloaded, long downloadedBytes) {}
+
+    private final ReleaseRepository repository;
+
+    private final Path corrlangHome;
+
+    DeltaUpdate(ReleaseRepository repository, Path corrlangHome) {
+        this.repository = repository;
+        this.corrlangHome = corrlangHome;
+    }
+
+    /**
+     * Installs the given version into the (empty) target directory.
+     * Returns empty if the release has no manifest, i.e. it has to be installed from the archive.
+     */
+    public Optional<Result> install(String version, Path targetDir) throws IOException, InterruptedException {
+        Path target = targetDir.toAbsolutePath().normalize();
+        Optional<InputStream> manifestContent = repository.open(version, ReleaseManifest.FILE_NAME);
+        if (manifestContent.isEmpty()) {
+            return Optional.empty();
+        }
+        ReleaseManifest manifest;
+        try (InputStream in = manifestContent.get()) {
+            manifest = ReleaseManifest.parse(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        Map<String, Path> installedFiles = installedFilesByHash(manifest, version);
+
+        AtomicInteger linked = new AtomicInteger();
+        AtomicLong linkedBytes = new AtomicLong();
+        AtomicInteger downloaded = new AtomicInteger();
+        AtomicLong downloadedBytes = new AtomicLong();
+        Semaphore permits = new Semaphore(MAX_CONCURRENT_DOWNLOADS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (ReleaseManifest.Entry entry : manifest.entries()) {
+                Path file = target.resolve(entry.path()).normalize();
+                if (!file.startsWith(target)) {
+                    throw new IOException("Invalid path in release manifest: " + entry.path());
+                }
+                Files.createDirectories(file.getParent());
+                Path existing = installedFiles.get(entry.sha256());
+                futures.add(executor.submit(() -> {
+                    if (existing != null && matches(existing, entry)) {
+                        link(existing, file);
+                        linked.incrementAndGet();
+                        linkedBytes.addAndGet(entry.size());
+                    } else {
+                        permits.acquire();
+                        try {
+                            download(version, entry, file);
+                        } finally {
+                            permits.release();
+                        }
+                        downloaded.incrementAndGet();
+                        downloadedBytes.addAndGet(entry.size());
+                    }
+                    if (entry.path().startsWith(SCRIPTS_DIR)) {
+                        makeExecutable(file);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Failed to install CorrLang version '" + version + "'", e.getCause());
+        }
+        return Optional.of(new Result(linked.get(), linkedBytes.get(), downloaded.get(), downloadedBytes.get()));
+    }
+
+    private void download(String version, ReleaseManifest.Entry entry, Path file) throws IOException, InterruptedException {
+        Optional<InputStream> content = repository.open(version, ReleaseManifest.FILES_DIR + entry.path());
+        if (content.isEmpty()) {
+            throw new IOException("Release of CorrLang version '" + version + "' does not contain '" + entry.path() + "' listed in its manifest!");
+        }
+        try (InputStream in = content.get()) {
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (Files.size(file) != entry.size() || !ContentHashes.of(file).equals(entry.sha256())) {
+            Files.delete(file);
+            throw new IOException("Checksum mismatch of '" + entry.path() + "' of CorrLang version '" + version + "', please try again!");
+        }
+    }
+
+    /**
+     * Whether the installed file still has the content listed in the manifest, i.e. it has not been modified
+     * since its hash was recorded.
+     */
+    private static boolean matches(Path installed, ReleaseManifest.Entry entry) throws IOException {
+        return Files.isRegularFile(installed)
+                && Files.size(installed) == entry.size()
+                && ContentHashes.of(installed).equals(entry.sha256());
+    }
+
+    /**
+     * Downloads do not carry file permissions and the installed file a script is linked from may have lost them,
+     * hence all scripts are made executable like in the distribution.
+     */
+    private static void makeExecutable(Path file) throws IOException {
+        PosixFileAttributeView view = Files.getFileAttributeView(file, PosixFileAttributeView.class);
+        if (view == null) {
+            return;
+        }
+        Set<PosixFilePermission> permissions = view.readAttributes().permissions();
+        permissions.add(PosixFilePermission.OWNER_EXECUTE);
+        permissions.add(PosixFilePermission.GROUP_EXECUTE);
+        permissions.add(PosixFilePermission.OTHERS_EXECUTE);
+        view.setPermissions(permissions);
+    }
+
+    /**
+     * The files of the installed versions whose hash is listed in the manifest. The hashes recorded in the
+     * {@link InstallManifest} are reused, otherwise only files with a size that occurs in the manifest are hashed.
+     * The version that is being installed is skipped, since it is about to be replaced.
+     */
+    private Map<String, Path> installedFilesByHash(ReleaseManifest manifest, String targetVersion) throws IOException {
+        Map<Long, List<String>> hashesBySize = new HashMap<>();
+        for (ReleaseManifest.Entry entry : manifest.entries()) {
+            hashesBySize.computeIfAbsent(entry.size(), s -> new ArrayList<>()).add(entry.sha256());
+        }
+        Set<String> hashes = new HashSet<>();
+        manifest.entries().forEach(entry -> hashes.add(entry.sha256()));
+        Map<String, Path> result = new HashMap<>();
+        for (String version : Installation.installedVersions(corrlangHome)) {
+            if (version.equals(targetVersion)) {
+                continue;
+            }
+            Path versionDir = Installation.versionDir(corrlangHome, version);
+            Optional<InstallManifest> installed = InstallManifest.read(versionDir);
+            if (installed.isPresent()) {
+                // hashed at installation already
+                installed.get().hashes().forEach((path, hash) -> {
+                    if (hashes.contains(hash)) {
+                        result.putIfAbsent(hash, versionDir.resolve(path));
+                    }
+                });
+                continue;
+            }
+            try (Stream<Path> files = Files.walk(Installation.versionDir(corrlangHome, version))) {
+                for (Path file : files.filter(Files::isRegularFile).toList()) {
+                    if (hashesBySize.containsKey(Files.size(file))) {
+                        String hash = ContentHashes.of(file);
+                        if (hashesBySize.get(Files.size(file)).contains(hash)) {
+                            result.putIfAbsent(hash, file);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Hard-links the file, or copies it where hard links are not possible (e.g. another file system).
+     */
+    private static void link(Path existing, Path file) throws IOException {
+        try {
+            Files.createLink(file, existing);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.copy(existing, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+    }
+}
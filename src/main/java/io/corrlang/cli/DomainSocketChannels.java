@@ -0,0 +1,40 @@
+package io.corrlang.cli;
+
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.netty.NettyChannelBuilder;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.nio.file.Path;
+
+/**
+ * Channel setup for talking to the CorrLang core service via a Unix domain socket (IPC)
+ * instead of the TCP loopback. Requires the native epoll transport, i.e. it is only available on Linux.
+ */
+class DomainSocketChannels {
+
+    /**
+     * Name of the file in the CorrLang home directory, where the core service publishes the path of its socket.
+     */
+    public static final String SOCKET_FILE = "SOCKET";
+
+    public static boolean isAvailable() {
+        try {
+            return Epoll.isAvailable();
+        } catch (Throwable e) {
+            // native transport is not on the classpath (e.g. in a native image for another OS)
+            return false;
+        }
+    }
+
+    public static ManagedChannelBuilder<?> forSocket(Path socket) {
+        // daemon threads, such that a finished command does not keep the CLI process alive
+        EpollEventLoopGroup eventLoop = new EpollEventLoopGroup(1, new DefaultThreadFactory("corrl-uds", true));
+        return NettyChannelBuilder.forAddress(new DomainSocketAddress(socket.toFile()))
+                .eventLoopGroup(eventLoop)
+                .channelType(EpollDomainSocketChannel.class);
+    }
+}
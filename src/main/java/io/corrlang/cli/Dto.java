@@ -2,8 +2,11 @@ package io.corrlang.cli;
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
 import java.util.List;
 
 import static io.corrlang.cli.Runner.LOGO;
@@ -16,14 +19,23 @@ sealed interface Dto permits
         Dto.CorrLangInstalled,
         Dto.CorrLangObjectCreated,
         Dto.CorrLangObjectUpdated,
+        Dto.CorrLangObjectUnchanged,
         Dto.CorrLangObjects,
+        Dto.CorrLangObjectStream,
         Dto.CorrLangSchemaExported,
+        Dto.CorrLangSchema,
         Dto.CorrLangServiceStarted,
         Dto.CorrLangServiceStatus,
         Dto.CorrLangServiceStopped,
+        Dto.CorrLangUpgraded,
         Dto.CorrLangTechSpaces,
         Dto.CorrLangObjectDetails,
-        Dto.CorrSpecMerged
+        Dto.CorrSpecMerged,
+        Dto.CorrSpecRemerged,
+        Dto.CorrSpecUnchanged,
+        Dto.CorrSpecsApplied,
+        Dto.CorrLangDataPushed,
+        Dto.CorrLangBatchApplied
 {
 
     record CorrLangInstallInfo(String cliVersion, String corrLangHome, @Nullable String corrLangVersion) implements Dto {
@@ -48,11 +60,18 @@ sealed interface Dto permits
         }
     }
 
-    record CorrLangServiceStarted(int port, boolean alreadyRunning) implements Dto {
+    /**
+     * @param startupDuration time from launching the process until the service answered, null if it was already running
+     */
+    record CorrLangServiceStarted(int port, boolean alreadyRunning, @Nullable Duration startupDuration) implements Dto {
 
         @Override
         public void print() {
-
+            if (alreadyRunning) {
+                System.out.println("CorrLang core service is already running on port " + port + ".");
+            } else {
+                System.out.println("CorrLang core service is ready on port " + port + " (startup took " + startupDuration.toMillis() + "ms).");
+            }
         }
     }
 
@@ -68,11 +87,38 @@ sealed interface Dto permits
         }
     }
 
+    /**
+     * @param previousPort port of the service running the previous version, null if no service was running
+     * @param port         port of the service running the new version, null if no service was running
+     */
+    record CorrLangUpgraded(
+            @Nullable String previousVersion,
+            String version,
+            @Nullable Integer previousPort,
+            @Nullable Integer port,
+            Duration duration
+    ) implements Dto {
+
+        @Override
+        public void print() {
+            System.out.println("CorrLang has been upgraded from version " + (previousVersion != null ? previousVersion : "<none>") +
+                    " to " + version + " (" + duration.toMillis() + "ms).");
+            if (port != null) {
+                System.out.println("The core service now runs on port " + port + " (previously " + previousPort + ").");
+            }
+        }
+    }
+
+    /**
+     * @param transport how the client is connected to the service (`UDS/<socket>` or `TCP/<host>:<port>`),
+     *                  null if it is not running
+     */
     record CorrLangServiceStatus(
             boolean isRunning,
             Integer apiVersion,
             Long pid,
             Integer port,
+            @Nullable String transport,
             Instant startupTS) implements Dto {
 
         @Override
@@ -85,6 +131,9 @@ sealed interface Dto permits
                 System.out.println("API version : " + apiVersion);
                 System.out.println("Service PID : " + pid);
                 System.out.println("Service Port: TCP/" + port);
+                if (transport != null) {
+                    System.out.println("Transport   : " + transport);
+                }
                 System.out.println("Startup TS  : " + startupTS);
                 System.out.println("Uptime      : " + duration.toString());
             } else  {
@@ -122,6 +171,26 @@ sealed interface Dto permits
         }
     }
 
+    /**
+     * Objects that are received one by one from the core service, i.e. they are printed as they arrive
+     * and are never held in memory all at once. Can only be consumed once.
+     */
+    record CorrLangObjectStream(Iterator<CorrLangObject> objects) implements Dto {
+
+        @Override
+        public void print() {
+            boolean empty = true;
+            while (objects.hasNext()) {
+                CorrLangObject obj = objects.next();
+                System.out.println(" -"+ obj.type + ": " + obj.project + "/" + obj.name + " (oid: " + obj.id + ")");
+                empty = false;
+            }
+            if (empty) {
+                System.out.println("<empty>");
+            }
+        }
+    }
+
     record CorrLangObjectCreated(String project, String name, int id, String type) implements Dto {
 
         @Override
@@ -131,6 +200,17 @@ sealed interface Dto permits
     }
 
 
+    record CorrLangBatchApplied(int operations, List<CorrLangObjectCreated> created, Duration duration) implements Dto {
+
+        @Override
+        public void print() {
+            System.out.println("Applied " + operations + " operations in a single batch (took " + duration.toMillis() + "ms).");
+            for (CorrLangObjectCreated obj : created) {
+                obj.print();
+            }
+        }
+    }
+
     record CorrLangSchemaExported(String resultPath) implements Dto {
 
         @Override
@@ -139,6 +219,31 @@ sealed interface Dto permits
         }
     }
 
+    record CorrLangSchema(
+            String project,
+            String endpoint,
+            int id,
+            String name,
+            List<SchemaElement> elements,
+            boolean chunked,
+            boolean cached
+    ) implements Dto {
+
+        record SchemaElement(String kind, String name) {}
+
+        @Override
+        public void print() {
+            System.out.println("=== " + name + " ===");
+            System.out.println("project  : " + project);
+            System.out.println("endpoint : " + endpoint);
+            System.out.println("id       : " + id);
+            System.out.println("elements : " + elements.size() + (cached ? " (from cache)" : chunked ? " (transferred in chunks)" : ""));
+            for (SchemaElement element : elements) {
+                System.out.printf("  %-14s%s%n", element.kind, element.name);
+            }
+        }
+    }
+
     sealed interface CorrLangObjectDetails extends Dto permits
             Dto.TechSpaceDetails,
             Dto.EndpointDetails,
@@ -240,6 +345,26 @@ sealed interface Dto permits
         }
     }
 
+    record CorrLangObjectUnchanged(String project, String name, int id, String type) implements Dto {
+
+        @Override
+        public void print() {
+            System.out.println(type + "/"  + name + "(oid: " + id + ") unchanged since the last apply, skipped.");
+        }
+    }
+
+    /**
+     * The CorrSpec has not changed since it has been merged last time, hence it was not merged again.
+     */
+    record CorrSpecUnchanged(CorrSpecMerged last) implements Dto {
+
+        @Override
+        public void print() {
+            System.out.println("'" + last.file + "' unchanged since the last apply, skipped merging.");
+            last.print();
+        }
+    }
+
     record CorrSpecMerged(String file, List<Message> errors, List<Message> warnings,  List<Action> actions) implements Dto {
         @Override
         public void print() {
@@ -260,9 +385,103 @@ sealed interface Dto permits
         }
     }
 
+    /**
+     * Result of merging a CorrSpec again after changes, printed as difference to the previous merge.
+     */
+    record CorrSpecRemerged(Instant at, List<Path> changedFiles, CorrSpecMerged previous, CorrSpecMerged current) implements Dto {
+
+        @Override
+        public void print() {
+            System.out.println("--- " + at.truncatedTo(ChronoUnit.SECONDS) + " re-merged '" + current.file + "' after changes of:");
+            for (Path file : changedFiles) {
+                System.out.println("  " + file);
+            }
+            printDiff("error", previous.errors, current.errors);
+            printDiff("warning", previous.warnings, current.warnings);
+            if (current.errors.isEmpty() && !previous.errors.isEmpty()) {
+                System.out.println("All errors resolved.");
+            }
+            if (current.actions.isEmpty()) {
+                System.out.println("NO actionable items");
+            } else {
+                for (Action action : current.actions) {
+                    System.out.println(action.message);
+                }
+            }
+        }
+
+        private static void printDiff(String kind, List<Message> before, List<Message> after) {
+            for (Message message : after) {
+                if (!before.contains(message)) {
+                    System.out.println("+ " + kind + " " + message.line + ":" + message.column + " " + message.message);
+                }
+            }
+            for (Message message : before) {
+                if (!after.contains(message)) {
+                    System.out.println("- " + kind + " " + message.line + ":" + message.column + " " + message.message);
+                }
+            }
+        }
+    }
+
+    record CorrSpecsApplied(List<ProjectApplied> projects, Duration duration) implements Dto {
+
+        @Override
+        public void print() {
+            long failed = projects.stream().filter(p -> !p.succeeded()).count();
+            System.out.println("Applied " + projects.size() + " CorrSpecs in " + duration.toMillis() + "ms" +
+                    (failed > 0 ? " (" + failed + " failed)" : "") + ":");
+            for (ProjectApplied project : projects) {
+                System.out.printf("  %-4s %6dms  %s (%s)%n",
+                        project.succeeded() ? "OK" : "FAIL",
+                        project.duration.toMillis(),
+                        project.file,
+                        project.project);
+            }
+            for (ProjectApplied project : projects) {
+                if (project.error != null) {
+                    System.out.println("=== " + project.file + " ===");
+                    System.out.println(project.error);
+                } else if (!project.succeeded() || project.result instanceof CorrSpecMerged) {
+                    System.out.println("=== " + project.file + " ===");
+                    project.result.print();
+                }
+            }
+        }
+    }
+
+    record ProjectApplied(String project, Path file, Duration duration, @Nullable Dto result, @Nullable String error) {
+
+        public boolean succeeded() {
+            return error == null && !(result instanceof CorrSpecMerged merged && !merged.errors.isEmpty());
+        }
+    }
+
+    record CorrLangDataPushed(
+            String project,
+            String endpoint,
+            long events,
+            long bytes,
+            Duration duration,
+            @Nullable String message) implements Dto {
+
+        @Override
+        public void print() {
+            double seconds = Math.max(duration.toNanos(), 1) / 1_000_000_000.0;
+            System.out.println("Pushed " + events + " events (" + bytes + " bytes) for endpoint '" + project + "/" + endpoint + "' in " + duration.toMillis() + "ms.");
+            System.out.printf("Throughput: %.1f events/s, %.2f MB/s%n", events / seconds, bytes / seconds / (1024 * 1024));
+            if (message != null) {
+                System.out.println(message);
+            }
+        }
+    }
+
     record Message(int line, int column, String message) {}
 
-    record Action(String message) {}
+    /**
+     * @param writtenFile the file that the action has written, if any
+     */
+    record Action(String message, @Nullable String writtenFile) {}
 
     /**
      * Prints the object to standard out.
@@ -0,0 +1,113 @@
+package io.corrlang.cli;
+
+import com.google.protobuf.MessageLite;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives a client-streaming call with flow control: the next message is only taken from the source
+ * when the transport is ready to send it. Hence, the source is never read faster than the network
+ * and the core service can take it and nothing is buffered without bounds.
+ */
+class FlowControlledSender<ReqT extends MessageLite, RespT> implements ClientResponseObserver<ReqT, RespT> {
+
+    /**
+     * Produces the messages that shall be sent.
+     */
+    interface Source<T> {
+
+        /**
+         * Returns the next message or null if there are no more messages.
+         */
+        @Nullable
+        T next() throws IOException;
+    }
+
+    private final Source<ReqT> source;
+
+    private final CompletableFuture<RespT> result = new CompletableFuture<>();
+
+    private final AtomicLong messages = new AtomicLong();
+
+    private final AtomicLong bytes = new AtomicLong();
+
+    private volatile boolean sourceExhausted = false;
+
+    @Nullable
+    private volatile RespT response;
+
+    FlowControlledSender(Source<ReqT> source) {
+        this.source = source;
+    }
+
+    @Override
+    public void beforeStart(ClientCallStreamObserver<ReqT> requestStream) {
+        // gRPC invokes the handler initially and whenever the stream becomes writable again, never concurrently
+        requestStream.setOnReadyHandler(() -> {
+            while (!sourceExhausted && requestStream.isReady()) {
+                try {
+                    ReqT next = source.next();
+                    if (next == null) {
+                        sourceExhausted = true;
+                        requestStream.onCompleted();
+                    } else {
+                        requestStream.onNext(next);
+                        messages.incrementAndGet();
+                        bytes.addAndGet(next.getSerializedSize());
+                    }
+                } catch (IOException | RuntimeException e) {
+                    sourceExhausted = true;
+                    result.completeExceptionally(e);
+                    requestStream.cancel("Failed to read from source", e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void onNext(RespT value) {
+        this.response = value;
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        result.completeExceptionally(t);
+    }
+
+    @Override
+    public void onCompleted() {
+        result.complete(response);
+    }
+
+    /**
+     * Blocks until the call has finished and returns the response of the service.
+     */
+    public RespT await() throws IOException {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof StatusRuntimeException statusException) {
+                throw statusException;
+            }
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public long getMessages() {
+        return messages.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+}
@@ -0,0 +1,181 @@
+package io.corrlang.cli;
+
+import io.corrlang.protocol.Ccp;
+import io.corrlang.protocol.Core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies CorrSpecs, schemas and data to a project, but skips the requests whose content has not changed since
+ * they were last applied to the same core service instance. What has been applied is recorded in a state file
+ * per project in `CORRLANG_HOME/state`, together with content hashes of the involved files and the last
+ * response of merging each of the project's CorrSpecs.
+ */
+class IncrementalApplier {
+
+    private static final String KIND_SCHEMA = "schema";
+    private static final String KIND_DATA = "data";
+
+    /**
+     * The calls to the core service that are made (or skipped), implemented by {@link CoreServiceClient}.
+     */
+    interface Client {
+
+        Core.CorrLangServiceStatus getServiceStatus();
+
+        Core.ParseResponse mergeCorrSpec(String project, String basePath, String corrSpecPath);
+
+        Ccp.CorrLangObject requireEndpoint(int endpoint);
+
+        Dto applyAddEndpointSchema(int endpoint, String techSpaceName, File schemaFile) throws IOException;
+
+        Dto applyAddEndpointData(int endpoint, String techSpaceName, File dataFile) throws IOException;
+    }
+
+    private final Client client;
+
+    private final Path stateDir;
+
+    private final String project;
+
+    IncrementalApplier(Client client, Path stateDir, String project) {
+        this.client = client;
+        this.stateDir = stateDir;
+        this.project = project;
+    }
+
+    public Dto applyCorrSpec(String basePath, String corrSpecPath) throws IOException {
+        Path base = Path.of(basePath);
+        Path corrSpec = base.resolve(corrSpecPath).toAbsolutePath().normalize();
+        Set<Path> referenced = CorrSpecWatcher.referencedFiles(base, corrSpec);
+        List<Path> files = new ArrayList<>();
+        files.add(corrSpec);
+        files.addAll(referenced);
+        String hash = ContentHashes.combined(List.of(basePath, corrSpecPath), files);
+
+        CliState.ApplyState state = loadState();
+        for (CliState.CorrSpecState last : state.getCorrSpecsList()) {
+            // a merge with errors is always repeated, the errors may have been caused by the environment
+            if (last.getBasePath().equals(basePath) &&
+                    last.getCorrSpec().equals(corrSpecPath) &&
+                    last.getContentHash().equals(hash) &&
+                    last.getResponse().getErrorsCount() == 0) {
+                return new Dto.CorrSpecUnchanged(CoreServiceClient.toCorrSpecMerged(corrSpecPath, last.getResponse()));
+            }
+        }
+
+        Core.ParseResponse response = client.mergeCorrSpec(project, basePath, corrSpecPath);
+        // merging may have re-created endpoints, hence their registrations are not valid anymore
+        CliState.ApplyState.Builder updated = state.toBuilder().clearArtifacts().clearCorrSpecs();
+        for (CliState.CorrSpecState other : state.getCorrSpecsList()) {
+            if (!(other.getBasePath().equals(basePath) && other.getCorrSpec().equals(corrSpecPath))) {
+                updated.addCorrSpecs(other);
+            }
+        }
+        updated.addCorrSpecs(CliState.CorrSpecState.newBuilder()
+                .setBasePath(basePath)
+                .setCorrSpec(corrSpecPath)
+                .setContentHash(hash)
+                .setResponse(response));
+        saveState(updated.build());
+        return CoreServiceClient.toCorrSpecMerged(corrSpecPath, response);
+    }
+
+    public Dto applyAddEndpointSchema(int endpoint, String techSpace, File schemaFile) throws IOException {
+        return applyArtifact(endpoint, KIND_SCHEMA, techSpace, schemaFile);
+    }
+
+    public Dto applyAddEndpointData(int endpoint, String techSpace, File dataFile) throws IOException {
+        return applyArtifact(endpoint, KIND_DATA, techSpace, dataFile);
+    }
+
+    private Dto applyArtifact(int endpoint, String kind, String techSpace, File file) throws IOException {
+        if (!file.isFile()) {
+            // directories are not tracked
+            return register(endpoint, kind, techSpace, file);
+        }
+        String location = file.getAbsolutePath();
+        String hash = ContentHashes.of(file.toPath());
+        CliState.ApplyState state = loadState();
+        for (CliState.ArtifactState artifact : state.getArtifactsList()) {
+            if (artifact.getEndpointId() == endpoint &&
+                    artifact.getKind().equals(kind) &&
+                    artifact.getTechSpace().equals(techSpace) &&
+                    artifact.getLocation().equals(location) &&
+                    artifact.getContentHash().equals(hash)) {
+                Ccp.CorrLangObject o = client.requireEndpoint(endpoint);
+                return new Dto.CorrLangObjectUnchanged(o.getProject(), o.getName(), o.getId(), "endpoint");
+            }
+        }
+        Dto result = register(endpoint, kind, techSpace, file);
+        CliState.ApplyState.Builder updated = state.toBuilder().clearArtifacts();
+        for (CliState.ArtifactState artifact : state.getArtifactsList()) {
+            if (!(artifact.getEndpointId() == endpoint &&
+                    artifact.getKind().equals(kind) &&
+                    artifact.getTechSpace().equals(techSpace) &&
+                    artifact.getLocation().equals(location))) {
+                updated.addArtifacts(artifact);
+            }
+        }
+        updated.addArtifacts(CliState.ArtifactState.newBuilder()
+                .setEndpointId(endpoint)
+                .setKind(kind)
+                .setTechSpace(techSpace)
+                .setLocation(location)
+                .setContentHash(hash));
+        saveState(updated.build());
+        return result;
+    }
+
+    private Dto register(int endpoint, String kind, String techSpace, File file) throws IOException {
+        return kind.equals(KIND_SCHEMA) ?
+                client.applyAddEndpointSchema(endpoint, techSpace, file) :
+                client.applyAddEndpointData(endpoint, techSpace, file);
+    }
+
+    /**
+     * The state of the project, if it belongs to another core service instance it is dropped.
+     */
+    private CliState.ApplyState loadState() throws IOException {
+        Core.CorrLangServiceStatus status = client.getServiceStatus();
+        CliState.ApplyState empty = CliState.ApplyState.newBuilder()
+                .setServiceStartupTS(status.getStartupTS())
+                .setServicePid(status.getPid())
+                .build();
+        try (InputStream in = Files.newInputStream(stateFile())) {
+            CliState.ApplyState state = CliState.ApplyState.parseFrom(in);
+            if (state.getServiceStartupTS() == status.getStartupTS() && state.getServicePid() == status.getPid()) {
+                return state;
+            }
+            return empty;
+        } catch (IOException e) {
+            // a missing or corrupt state means that everything is applied again
+            return empty;
+        }
+    }
+
+    private void saveState(CliState.ApplyState state) throws IOException {
+        Files.createDirectories(stateDir);
+        Path file = stateFile();
+        Path tmp = Files.createTempFile(stateDir, file.getFileName().toString(), ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            state.writeTo(out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path stateFile() {
+        return stateDir.resolve(URLEncoder.encode(project, StandardCharsets.UTF_8) + ".state");
+    }
+}
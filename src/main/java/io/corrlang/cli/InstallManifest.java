@@ -0,0 +1,107 @@
+package io.corrlang.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Metadata of an installed version, written by `install` to `versions/<version>/install.toml`:
+ * the version, the class path of the core service (relative to the version directory, in launch order)
+ * and the SHA-256 hashes of its jars. Next to it, `classpath.args` contains the class path with absolute paths
+ * as JVM argument file (`java @classpath.args ...`).
+ * <p>
+ * Neither `info` nor `up` has to list the `lib` directory then. Installations without a manifest
+ * (e.g. from older CLI versions) are still supported by scanning `lib`.
+ */
+record InstallManifest(String version, String directory, List<String> classpath, Map<String, String> hashes) {
+
+    public static final String FILE_NAME = "install.toml";
+
+    public static final String ARG_FILE_NAME = "classpath.args";
+
+    private static final String HASHES = "hashes";
+
+    /**
+     * Reads the manifest of the given installation directory, empty if there is none.
+     */
+    static Optional<InstallManifest> read(Path installationDir) throws IOException {
+        Path file = installationDir.resolve(FILE_NAME);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        ConfigFile content = ConfigFile.load(file);
+        String version = content.getString("", "version", null);
+        if (version == null) {
+            return Optional.empty();
+        }
+        Map<String, String> hashes = new LinkedHashMap<>();
+        content.table(HASHES).forEach((path, hash) -> hashes.put(path, hash.toString()));
+        return Optional.of(new InstallManifest(
+                version,
+                content.getString("", "directory", ""),
+                content.getStringList("", "classpath"),
+                hashes));
+    }
+
+    /**
+     * Creates the manifest for the distribution in the given directory, which is going to be moved to `directory`.
+     */
+    static InstallManifest create(Path distributionDir, String version, Path directory) throws IOException {
+        Path libDir = distributionDir.resolve("lib");
+        List<String> classpath;
+        try (Stream<Path> files = Files.list(libDir)) {
+            // archived classes are only used if the class path is the same as in the training run, hence a stable order
+            classpath = files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".jar"))
+                    .sorted()
+                    .map(name -> "lib/" + name)
+                    .toList();
+        }
+        Map<String, String> hashes = new LinkedHashMap<>();
+        for (String jar : classpath) {
+            hashes.put(jar, ContentHashes.of(distributionDir.resolve(jar)));
+        }
+        return new InstallManifest(version, directory.toString(), classpath, hashes);
+    }
+
+    /**
+     * Writes the manifest and the argument file to the given directory.
+     */
+    void write(Path dir) throws IOException {
+        StringBuilder toml = new StringBuilder("# Written by 'corrl install', do not edit.\n");
+        toml.append("version = ").append(quote(version)).append('\n');
+        toml.append("directory = ").append(quote(directory)).append('\n');
+        toml.append("classpath = [").append(String.join(", ", classpath.stream().map(InstallManifest::quote).toList())).append("]\n");
+        toml.append('\n').append('[').append(HASHES).append("]\n");
+        hashes.forEach((path, hash) -> toml.append(quote(path)).append(" = ").append(quote(hash)).append('\n'));
+        Files.writeString(dir.resolve(FILE_NAME), toml);
+
+        String paths = String.join(File.pathSeparator, absoluteClasspath(Path.of(directory)).stream().map(Path::toString).toList());
+        Files.writeString(dir.resolve(ARG_FILE_NAME), "-cp\n" + quote(paths) + "\n");
+    }
+
+    List<Path> absoluteClasspath(Path installationDir) {
+        return classpath.stream().map(installationDir::resolve).toList();
+    }
+
+    /**
+     * The argument file with the class path, unless the installation has been moved since it was written.
+     */
+    Optional<Path> argFile(Path installationDir) {
+        Path argFile = installationDir.resolve(ARG_FILE_NAME);
+        return installationDir.toString().equals(directory) && Files.isRegularFile(argFile) ? Optional.of(argFile) : Optional.empty();
+    }
+
+    /**
+     * Quoted string as understood by TOML as well as by JVM argument files.
+     */
+    private static String quote(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,114 @@
+package io.corrlang.cli;
+
+import java.io.IOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Layout of a CorrLang installation with side-by-side versions:
+ * every version lives in `versions/<version>`, and the link `current` points to the active one.
+ * Switching the version replaces the link atomically, i.e. there is no moment without a usable installation,
+ * and services started earlier keep running from the directory of their version.
+ * The links `lib` and `bin` (pointing into `current`) keep the paths of the former in-place layout valid.
+ * <p>
+ * Where symbolic links are not available (e.g. Windows without the respective privilege),
+ * `current` is a file containing the name of the active version.
+ */
+final class Installation {
+
+    public static final String VERSIONS_DIR = "versions";
+
+    public static final String CURRENT = "current";
+
+    private static final List<String> COMPATIBILITY_LINKS = List.of("lib", "bin");
+
+    private Installation() {
+    }
+
+    static Path versionDir(Path corrlangHome, String version) {
+        return corrlangHome.resolve(VERSIONS_DIR).resolve(version);
+    }
+
+    /**
+     * The (real) directory of the active version, or the home directory itself for an installation in the former in-place layout.
+     */
+    static Path currentDir(Path corrlangHome) throws IOException {
+        Path current = corrlangHome.resolve(CURRENT);
+        if (Files.isSymbolicLink(current)) {
+            return current.toRealPath();
+        } else if (Files.isRegularFile(current)) {
+            return versionDir(corrlangHome, Files.readString(current).trim());
+        }
+        return corrlangHome;
+    }
+
+    /**
+     * The name of the active version (as directory in `versions`), empty if none is active or the installation
+     * is in the former in-place layout.
+     */
+    static Optional<String> currentVersion(Path corrlangHome) throws IOException {
+        Path current = currentDir(corrlangHome);
+        if (current.equals(corrlangHome) || !Files.isDirectory(current)) {
+            return Optional.empty();
+        }
+        return Optional.of(current.getFileName().toString());
+    }
+
+    static List<String> installedVersions(Path corrlangHome) throws IOException {
+        Path versions = corrlangHome.resolve(VERSIONS_DIR);
+        if (!Files.isDirectory(versions)) {
+            return List.of();
+        }
+        try (Stream<Path> dirs = Files.list(versions)) {
+            return dirs.filter(Files::isDirectory)
+                    .map(dir -> dir.getFileName().toString())
+                    .filter(name -> !name.startsWith("."))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Whether the home directory contains an installation in the former layout, i.e. `lib` and `bin` directly.
+     */
+    static boolean isInPlace(Path corrlangHome) {
+        Path lib = corrlangHome.resolve("lib");
+        return Files.isDirectory(lib) && !Files.isSymbolicLink(lib);
+    }
+
+    /**
+     * Makes the given (installed) version the active one.
+     */
+    static void switchTo(Path corrlangHome, String version) throws IOException {
+        if (!Files.isDirectory(versionDir(corrlangHome, version))) {
+            throw new IllegalArgumentException("CorrLang version '" + version + "' is not installed at '" + corrlangHome.toAbsolutePath() + "'!");
+        }
+        Path current = corrlangHome.resolve(CURRENT);
+        Path tmp = corrlangHome.resolve("." + CURRENT + ".tmp");
+        Files.deleteIfExists(tmp);
+        boolean linked;
+        try {
+            Files.createSymbolicLink(tmp, Path.of(VERSIONS_DIR, version));
+            linked = true;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.writeString(tmp, version);
+            linked = false;
+        }
+        // rename(2) replaces the former link in one step
+        Files.move(tmp, current, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (linked) {
+            for (String name : COMPATIBILITY_LINKS) {
+                Path link = corrlangHome.resolve(name);
+                if (!Files.exists(link, LinkOption.NOFOLLOW_LINKS)) {
+                    Files.createSymbolicLink(link, Path.of(CURRENT, name));
+                }
+            }
+        }
+    }
+}
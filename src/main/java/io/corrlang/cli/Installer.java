@@ -1,17 +1,22 @@
 package io.corrlang.cli;
 
+import javax.annotation.Nullable;
 import java.io.*;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 
 /**
  * Logic for downloading and installing CorrLang versions.
@@ -19,11 +24,30 @@ import java.util.zip.ZipInputStream;
 public class Installer {
 
     private static final String BASE_DOWNLOAD_LINK = "https://codeberg.org/drstrudel/corrlang/releases/download/";
+    /**
+     * Overrides the base URL of the releases, e.g. for a mirror.
+     */
+    public static final String ENV_CORRLANG_DOWNLOAD_URL = "CORRLANG_DOWNLOAD_URL";
     private static final String CORRLANG_ARCHIVE_NAME = "corrlang.zip";
     public static final String CONFIG_FILE_NAME = "config.toml";
+    private static final Pattern SYSTEM_PORT = Pattern.compile("(?ms)^\\[system\\][^\\[]*?^port\\s*=\\s*(\\d+)");
 
+    /**
+     * The version that is currently active in the given installation.
+     */
     public static Optional<String> getInstalledVersion(Path corrlangHome) throws Exception {
-        Path libDir = corrlangHome.resolve("lib");
+        return getVersion(Installation.currentDir(corrlangHome));
+    }
+
+    /**
+     * The version of the distribution in the given directory, as given by the name of the service jar.
+     */
+    static Optional<String> getVersion(Path installationDir) throws Exception {
+        Optional<InstallManifest> manifest = InstallManifest.read(installationDir);
+        if (manifest.isPresent()) {
+            return Optional.of(manifest.get().version());
+        }
+        Path libDir = installationDir.resolve("lib");
         if (Files.exists(libDir) && Files.isDirectory(libDir) ) {
             try (Stream<Path> f = Files.list(libDir)) {
                 List<Path> list = f.toList();
@@ -37,7 +61,7 @@ public class Installer {
                 if (corrLangVersion.isPresent()) {
                     return corrLangVersion;
                 } else {
-                    throw new Exception("CorrLang installation at '" + corrlangHome.toAbsolutePath().toString() + "' seems corrupted: could not find 'corrlang-service-<version>.jar' in the 'lib' directory!");
+                    throw new Exception("CorrLang installation at '" + installationDir.toAbsolutePath().toString() + "' seems corrupted: could not find 'corrlang-service-<version>.jar' in the 'lib' directory!");
                 }
             }
         } else {
@@ -46,33 +70,45 @@ public class Installer {
     }
 
 
+    /**
+     * Installs the given version in `versions/<version>` and makes it the active one.
+     *
+     * @param from a distribution archive or an unpacked distribution to install instead of downloading the version
+     */
     public static Dto.CorrLangInstalled downloadAndUnpackZip(
             Path targetDirectory,
             String version,
             boolean overwrite,
-            int port) throws Exception {
-        // Check if target directory exists and contains files
+            int port,
+            @Nullable Path from) throws Exception {
+        return install(targetDirectory, version, overwrite, port, from, true);
+    }
 
+    /**
+     * Installs the given version side by side with the already installed ones. The distribution is unpacked into
+     * a staging directory first and moved into `versions/<version>` at the end, i.e. the installed versions
+     * (and services running from them) are not affected by a failed or interrupted installation.
+     *
+     * @param activate whether the installed version becomes the active one
+     */
+    static Dto.CorrLangInstalled install(
+            Path targetDirectory,
+            String version,
+            boolean overwrite,
+            int port,
+            @Nullable Path from,
+            boolean activate) throws Exception {
         boolean hasOverwritten = false;
 
-        if (Files.exists(targetDirectory)) {
-            Stream<Path> pathStream = Files.list(targetDirectory);
-            List<String> directoryContents = pathStream.map(path -> path.getFileName().toString()).toList();
-            pathStream.close();
-            if (directoryContents.contains("lib") || directoryContents.contains("bin")) {
-                if (overwrite) {
-                    hasOverwritten = true;
-                    System.out.println(" - Found existing CorrLang installation at '" + targetDirectory.toAbsolutePath() + "', overwriting as per user request.");
-                    Files.walkFileTree(targetDirectory.resolve("lib"), DeleteFileVisitor.getInstance());
-                    Files.walkFileTree(targetDirectory.resolve("bin"), DeleteFileVisitor.getInstance());
-                } else {
-                    throw new Exception("CorrLang installation already exists in the target directory: '" + targetDirectory.toAbsolutePath() + "'! Use the '--overwrite' flag to overwrite the existing installation.");
-                }
-            }
-
-        } else {
+        if (!Files.exists(targetDirectory)) {
             System.out.println(" - Target directory is empty, creating directory structure at: '" + targetDirectory.toAbsolutePath() + "'.");
             Files.createDirectories(targetDirectory);
+        } else if (Installation.isInPlace(targetDirectory)) {
+            migrateInPlaceInstallation(targetDirectory);
+        }
+        if (from == null) {
+            // fail before downloading
+            checkOverwrite(targetDirectory, version, overwrite);
         }
 
         Path configFile = targetDirectory.resolve(CONFIG_FILE_NAME);
@@ -83,28 +119,68 @@ public class Installer {
             System.out.println(" - Found existing configuration file at: '" + configFile.toAbsolutePath() + "'.");
         }
 
-        // Step 1: Download the ZIP file
-        InputStream inputStream = new URI(BASE_DOWNLOAD_LINK + "/" + version + "/" + CORRLANG_ARCHIVE_NAME).toURL().openStream();
-        Path tempZipPath = Files.createTempFile("corrlang.downloaded", ".zip");
+        Path versions = Files.createDirectories(targetDirectory.resolve(Installation.VERSIONS_DIR));
+        List<CompletableFuture<List<IOException>>> deletions = new ArrayList<>();
+        deletions.add(TreeDeleter.deleteTombstones(versions));
+        Path staging = Files.createTempDirectory(versions, ".staging-");
+        try {
+            if (from != null && Files.isDirectory(from)) {
+                System.out.println(" - Copying distribution from directory: '" + from.toAbsolutePath() + "'.");
+                copyDistribution(from, staging);
+            } else {
+                // only the changed files if another version is installed already and the release has a manifest
+                Optional<DeltaUpdate.Result> delta = Optional.empty();
+                if (from == null && !Installation.installedVersions(targetDirectory).isEmpty()) {
+                    try {
+                        delta = new DeltaUpdate(ReleaseRepository.forBase(downloadBase()), targetDirectory).install(version, staging);
+                    } catch (IOException | RuntimeException e) {
+                        System.out.println(" - Delta update failed (" + e.getMessage() + "), downloading the full distribution instead.");
+                        // start over with an empty staging directory
+                        deletions.add(TreeDeleter.deleteAsync(staging));
+                        Files.createDirectories(staging);
+                    }
+                }
+                if (delta.isPresent()) {
+                    System.out.println(" - Installed CorrLang version '" + version + "' as delta: " +
+                            delta.get().downloaded() + " file(s) (" + delta.get().downloadedBytes() / 1024 + " KB) downloaded, " +
+                            delta.get().linked() + " file(s) (" + delta.get().linkedBytes() / 1024 + " KB) linked from installed versions.");
+                } else {
+                    // Step 1: Download the ZIP file (or take it from the cache)
+                    Path zip = from != null ? from : fetchArchive(version);
+                    System.out.println(" - Unpacking distribution '" + zip + "' to directory: '" + targetDirectory.toAbsolutePath() + "'.");
 
-        System.out.print(" - Downloading CorrLang version '" + version + "'...");
-        try (BufferedInputStream bis = new BufferedInputStream(inputStream);
-             FileOutputStream fos = new FileOutputStream(tempZipPath.toFile())) {
+                    // Step 2: Unpack the ZIP file
+                    ZipExtractor.extract(zip, staging);
+                }
+            }
+            if (from != null) {
+                version = getVersion(staging).orElse(version);
+                checkOverwrite(targetDirectory, version, overwrite);
+            }
 
-            byte[] buffer = new byte[1024];
-            int bytesRead;
-            while ((bytesRead = bis.read(buffer)) != -1) {
-                fos.write(buffer, 0, bytesRead);
+            // Step 3: Move it into place
+            Path versionDir = Installation.versionDir(targetDirectory, version);
+            InstallManifest.create(staging, version, versions.toRealPath().resolve(version)).write(staging);
+            if (Files.exists(versionDir)) {
+                hasOverwritten = true;
+                System.out.println(" - Found existing installation of CorrLang version '" + version + "', overwriting as per user request.");
+                Path replaced = replace(versionDir, staging);
+                // the former files are deleted in the background
+                deletions.add(TreeDeleter.deleteAsync(replaced));
+            } else {
+                Files.move(staging, versionDir, StandardCopyOption.ATOMIC_MOVE);
+            }
+            if (activate) {
+                Installation.switchTo(targetDirectory, version);
+            }
+        } finally {
+            deletions.add(TreeDeleter.deleteAsync(staging));
+            for (CompletableFuture<List<IOException>> deletion : deletions) {
+                for (IOException failure : deletion.join()) {
+                    System.out.println(" - Could not delete " + failure.getMessage() + ", please remove it manually.");
+                }
             }
         }
-        System.out.println(" ...done.");
-        System.out.println(" - Unpacking distribution to directory: '" + targetDirectory.toAbsolutePath() + "'.");
-
-        // Step 2: Unpack the ZIP file
-        unpackZip(tempZipPath.toFile(), targetDirectory.toFile());
-
-        // Clean up: Delete the temporary ZIP file
-        Files.delete(tempZipPath);
 
         return new Dto.CorrLangInstalled(
                 version,
@@ -113,39 +189,135 @@ public class Installer {
         );
     }
 
-    private static void unpackZip(File zipFilePath, File destDir) throws IOException {
-        try (ZipInputStream zipIn = new ZipInputStream(new FileInputStream(zipFilePath))) {
-            ZipEntry entry = zipIn.getNextEntry();
-            while (entry != null) {
-                String filePath = destDir + File.separator + entry.getName();
-                if (entry.getName().startsWith("corrlang")) {
-                    filePath = destDir + File.separator + entry.getName().substring(9);
-                }
+    private static void checkOverwrite(Path targetDirectory, String version, boolean overwrite) throws Exception {
+        if (!overwrite && Files.exists(Installation.versionDir(targetDirectory, version))) {
+            throw new Exception("CorrLang version '" + version + "' is already installed in the target directory: '" + targetDirectory.toAbsolutePath() + "'! Use the '--overwrite' flag to overwrite the existing installation.");
+        }
+        // the running service loads classes from the directory of the active version
+        if (overwrite && Installation.currentVersion(targetDirectory).filter(version::equals).isPresent() && ProcessStarter.isServiceRunning(targetDirectory)) {
+            throw new Exception("CorrLang version '" + version + "' is the active version and the core service is running! Stop it with 'corrl down' before overwriting the installation.");
+        }
+    }
 
-                if (!entry.isDirectory()) {
-                    // If the entry is a file, extract it
-                    extractFile(zipIn, filePath);
-                } else {
-                    // If the entry is a directory, make the directory
-                    File dirEntry = new File(filePath);
-                    dirEntry.mkdirs();
-                }
-                zipIn.closeEntry();
-                entry = zipIn.getNextEntry();
+    /**
+     * Moves the given directory aside and the new one into its place. The former directory is moved back
+     * if the new one cannot be moved into place, i.e. the installed version is only deleted once it has been replaced.
+     *
+     * @return where the former directory has been moved to
+     */
+    private static Path replace(Path dir, Path replacement) throws IOException {
+        Path aside = dir.resolveSibling("." + dir.getFileName() + ".replaced-" + System.nanoTime());
+        Files.move(dir, aside, StandardCopyOption.ATOMIC_MOVE);
+        try {
+            Files.move(replacement, dir, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            try {
+                Files.move(aside, dir, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException restoreFailure) {
+                e.addSuppressed(restoreFailure);
+                System.out.println(" - Could not restore the former installation, it has been left at '" + aside.toAbsolutePath() + "'.");
             }
+            throw e;
+        }
+        return aside;
+    }
+
+    /**
+     * Moves an installation in the former layout (`lib` and `bin` directly in the home directory) to `versions/<version>`.
+     */
+    private static void migrateInPlaceInstallation(Path targetDirectory) throws Exception {
+        String version = getVersion(targetDirectory).orElseThrow();
+        Path versionDir = Installation.versionDir(targetDirectory, version);
+        System.out.println(" - Moving existing installation of CorrLang version '" + version + "' to '" + versionDir.toAbsolutePath() + "'.");
+        Files.createDirectories(versionDir);
+        for (String dir : List.of("lib", "bin")) {
+            Path source = targetDirectory.resolve(dir);
+            if (Files.exists(source)) {
+                Files.move(source, versionDir.resolve(dir), StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        InstallManifest.create(versionDir, version, versionDir.toRealPath()).write(versionDir);
+        Installation.switchTo(targetDirectory, version);
+    }
+
+    /**
+     * The location of the releases, either an HTTP(S) URL or a `file:` URI of a local mirror.
+     */
+    static URI downloadBase() throws URISyntaxException {
+        String base = System.getenv(ENV_CORRLANG_DOWNLOAD_URL);
+        if (base == null || base.isBlank()) {
+            base = BASE_DOWNLOAD_LINK;
+        }
+        return new URI(base.endsWith("/") ? base : base + "/");
+    }
+
+    static URI downloadUri(String version) throws URISyntaxException {
+        return downloadBase().resolve(version + "/" + CORRLANG_ARCHIVE_NAME);
+    }
+
+    /**
+     * The distribution archive of the given version, downloaded only if it is not in the archive cache yet.
+     */
+    private static Path fetchArchive(String version) throws IOException, InterruptedException, URISyntaxException {
+        URI uri = downloadUri(version);
+        if ("file".equals(uri.getScheme())) {
+            // a local mirror, nothing to download
+            return Path.of(uri);
+        }
+        ArchiveCache cache = new ArchiveCache(ArchiveCache.defaultDirectory());
+        Optional<Path> cached = cache.lookup(uri);
+        if (cached.isPresent()) {
+            System.out.println(" - Found CorrLang version '" + version + "' in the download cache.");
+            return cached.get();
+        }
+        System.out.print(" - Downloading CorrLang version '" + version + "'...");
+        ArchiveDownloader downloader = new ArchiveDownloader(ArchiveDownloader.DEFAULT_SEGMENTS);
+        Path downloaded = cache.downloadDirectory().resolve(URLEncoder.encode(version, StandardCharsets.UTF_8) + "-" + CORRLANG_ARCHIVE_NAME);
+        downloader.download(uri, downloaded);
+        Optional<String> checksum = downloader.publishedChecksum(uri);
+        if (checksum.isPresent() && !checksum.get().equals(ContentHashes.of(downloaded))) {
+            Files.delete(downloaded);
+            throw new IOException("Checksum mismatch of the downloaded CorrLang version '" + version + "', please try again!");
         }
+        System.out.println(" ...done.");
+        return cache.store(uri, downloaded);
     }
 
-    private static void extractFile(ZipInputStream zipIn, String filePath) throws IOException {
-        try (BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(filePath))) {
-            byte[] bytesIn = new byte[1024];
-            int read;
-            while ((read = zipIn.read(bytesIn)) != -1) {
-                bos.write(bytesIn, 0, read);
+    /**
+     * Copies an unpacked distribution, which either has a 'lib' directory or a 'corrlang' directory containing it.
+     */
+    private static void copyDistribution(Path source, Path targetDirectory) throws IOException {
+        Path root = !Files.isDirectory(source.resolve("lib")) && Files.isDirectory(source.resolve("corrlang")) ?
+                source.resolve("corrlang") :
+                source;
+        if (!Files.isDirectory(root.resolve("lib"))) {
+            throw new IOException("'" + source.toAbsolutePath() + "' is not a CorrLang distribution: no 'lib' directory found!");
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : files.toList()) {
+                Path target = targetDirectory.resolve(root.relativize(file).toString());
+                if (Files.isDirectory(file)) {
+                    Files.createDirectories(target);
+                } else if (!file.getFileName().toString().equals(CONFIG_FILE_NAME) || !file.getParent().equals(root)) {
+                    // an existing configuration is kept
+                    Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                }
             }
         }
     }
 
+    /**
+     * Writes a copy of the given configuration file where the port of the service is replaced.
+     */
+    static void writeConfigWithPort(Path configFile, Path target, int port) throws IOException {
+        String config = Files.readString(configFile);
+        Matcher matcher = SYSTEM_PORT.matcher(config);
+        if (!matcher.find()) {
+            throw new IOException("No '[system]' section with a 'port' found in '" + configFile.toAbsolutePath() + "'!");
+        }
+        Files.writeString(target, config.substring(0, matcher.start(1)) + port + config.substring(matcher.end(1)));
+    }
+
     private static void writeDefaultConfig(File file, int port, File corrlangHome) throws IOException {
         try (FileOutputStream fos = new FileOutputStream(file);
         BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(fos));
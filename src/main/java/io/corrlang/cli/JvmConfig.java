@@ -0,0 +1,154 @@
+package io.corrlang.cli;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings of the JVM that runs the core service, read from the `[jvm]` section of `config.toml`.
+ * <p>
+ * The heap, garbage collector etc. are given by a named profile: the built-in profiles `default`, `low-latency`,
+ * `throughput` and `small` can be overridden, and new profiles can be defined, in `[jvm.profiles.<name>]` tables.
+ * System properties in `[jvm.systemProperties]` are passed with every profile.
+ */
+record JvmConfig(
+        @Nullable String javaHome,
+        Profile profile,
+        Map<String, String> systemProperties
+) {
+
+    public static final String SECTION = "jvm";
+
+    public static final String DEFAULT_PROFILE = "default";
+
+    /**
+     * @param gc               garbage collector ("G1", "ZGC", "Parallel", "Serial"), null leaves the choice to the JVM
+     * @param maxHeap          -Xmx in bytes, 0 leaves it to the JVM (or to maxRamPercentage)
+     * @param initialHeap      -Xms in bytes, 0 leaves it to the JVM
+     * @param maxRamPercentage max. heap as percentage of the (container) memory, 0 leaves it to the JVM
+     * @param activeProcessorCount number of CPUs the JVM sizes its thread pools for, 0 for all available
+     * @param gcLog            if true, GC events are logged to `CORRLANG_HOME/logs/gc.log`
+     * @param options          further JVM options passed as they are
+     */
+    record Profile(
+            String name,
+            @Nullable String gc,
+            long maxHeap,
+            long initialHeap,
+            double maxRamPercentage,
+            int activeProcessorCount,
+            boolean gcLog,
+            List<String> options
+    ) {}
+
+    private static final Map<String, Profile> BUILT_IN_PROFILES = Map.of(
+            DEFAULT_PROFILE, new Profile(DEFAULT_PROFILE, null, 0, 0, 0, 0, false, List.of()),
+            // short pauses independent of the heap size, at the cost of some throughput and memory
+            "low-latency", new Profile("low-latency", "ZGC", 0, 0, 0, 0, false, List.of()),
+            // the highest throughput for large batch merges, pauses grow with the heap
+            "throughput", new Profile("throughput", "Parallel", 0, 0, 0, 0, false, List.of()),
+            // a small footprint for containers and small machines
+            "small", new Profile("small", "Serial", 256L * 1024 * 1024, 0, 0, 0, false, List.of("-Xss512k", "-XX:TieredStopAtLevel=1"))
+    );
+
+    public static final JvmConfig DEFAULT = new JvmConfig(null, BUILT_IN_PROFILES.get(DEFAULT_PROFILE), Map.of());
+
+    public static JvmConfig load(Path configFile, @Nullable String profileName) throws IOException {
+        return from(ConfigFile.load(configFile), profileName);
+    }
+
+    /**
+     * @param profileName overrides the profile selected in the configuration
+     */
+    public static JvmConfig from(ConfigFile config, @Nullable String profileName) {
+        String javaHome = config.getString(SECTION, "javaHome", "");
+        String name = profileName != null ? profileName : config.getString(SECTION, "profile", DEFAULT_PROFILE);
+        Map<String, String> systemProperties = new LinkedHashMap<>();
+        config.table(SECTION + ".systemProperties").forEach((key, value) -> systemProperties.put(key, value.toString()));
+        return new JvmConfig(javaHome.isBlank() ? null : javaHome, profile(config, name), systemProperties);
+    }
+
+    private static Profile profile(ConfigFile config, String name) {
+        String table = SECTION + ".profiles." + name;
+        Profile base = BUILT_IN_PROFILES.get(name);
+        if (base == null) {
+            if (!config.tableNames().contains(table)) {
+                throw new IllegalArgumentException("Unknown JVM profile '" + name + "', expected one of " +
+                        BUILT_IN_PROFILES.keySet() + " or a custom profile in '[" + table + "]'!");
+            }
+            base = BUILT_IN_PROFILES.get(DEFAULT_PROFILE);
+        }
+        String gc = config.getString(table, "gc", base.gc());
+        return new Profile(
+                name,
+                gc == null || gc.isBlank() ? null : gc,
+                config.getSize(table, "maxHeap", base.maxHeap()),
+                config.getSize(table, "initialHeap", base.initialHeap()),
+                config.getDouble(table, "maxRamPercentage", base.maxRamPercentage()),
+                config.getInt(table, "activeProcessorCount", base.activeProcessorCount()),
+                config.getBoolean(table, "gcLog", base.gcLog()),
+                config.has(table, "options") ? config.getStringList(table, "options") : base.options()
+        );
+    }
+
+    /**
+     * The java executable: `javaHome`, otherwise $CORRLANG_JAVA or $JAVA_HOME, otherwise the one on the PATH.
+     */
+    public String javaExecutable() {
+        if (javaHome != null) {
+            return javaHome + "/bin/java";
+        } else if (System.getenv("CORRLANG_JAVA") != null) {
+            return System.getenv("CORRLANG_JAVA") + "/bin/java";
+        } else if (System.getenv("JAVA_HOME") != null) {
+            return System.getenv("JAVA_HOME") + "/bin/java";
+        } else {
+            return "java";
+        }
+    }
+
+    /**
+     * The options for launching the core service with this configuration.
+     */
+    public List<String> toOptions(Path corrlangHome) {
+        List<String> result = new ArrayList<>();
+        if (profile.gc() != null) {
+            result.add("-XX:+Use" + gcFlag(profile.gc()));
+        }
+        if (profile.initialHeap() > 0) {
+            result.add("-Xms" + profile.initialHeap());
+        }
+        if (profile.maxHeap() > 0) {
+            result.add("-Xmx" + profile.maxHeap());
+        } else if (profile.maxRamPercentage() > 0) {
+            result.add("-XX:MaxRAMPercentage=" + profile.maxRamPercentage());
+        }
+        if (profile.activeProcessorCount() > 0) {
+            result.add("-XX:ActiveProcessorCount=" + profile.activeProcessorCount());
+        }
+        if (profile.gcLog()) {
+            Path logDir = corrlangHome.resolve("logs").toAbsolutePath();
+            // the JVM does not create the directory of the log file
+            logDir.toFile().mkdirs();
+            result.add("-Xlog:gc*:file=\"" + logDir.resolve("gc.log") + "\":time,uptime,level,tags:filecount=5,filesize=10m");
+        }
+        result.addAll(profile.options());
+        systemProperties.forEach((key, value) -> result.add("-D" + key + "=" + value));
+        return result;
+    }
+
+    private static String gcFlag(String gc) {
+        return switch (gc.toLowerCase(Locale.ROOT)) {
+            case "g1", "g1gc" -> "G1GC";
+            case "z", "zgc" -> "ZGC";
+            case "parallel", "parallelgc" -> "ParallelGC";
+            case "serial", "serialgc" -> "SerialGC";
+            case "shenandoah", "shenandoahgc" -> "ShenandoahGC";
+            default -> throw new IllegalArgumentException("Unknown garbage collector '" + gc + "' in JVM profile!");
+        };
+    }
+}
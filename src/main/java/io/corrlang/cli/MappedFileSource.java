@@ -0,0 +1,80 @@
+package io.corrlang.cli;
+
+import com.google.protobuf.UnsafeByteOperations;
+import io.corrlang.protocol.Ccp;
+import io.corrlang.protocol.Core;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Produces the messages of a file upload: a header followed by the content of the file in chunks.
+ * The file is memory-mapped (in windows of at most 1 GB) and the chunks wrap the mapped memory directly,
+ * i.e. the content is not copied on the heap before gRPC serializes it onto the wire.
+ */
+class MappedFileSource implements FlowControlledSender.Source<Core.UploadFileRequest>, Closeable {
+
+    private static final long MAX_WINDOW_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+
+    private final String fileName;
+
+    private final long size;
+
+    private final int chunkSize;
+
+    private boolean headerSent = false;
+
+    private long windowStart = 0;
+
+    @Nullable
+    private MappedByteBuffer window;
+
+    MappedFileSource(Path file, int chunkSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.fileName = file.getFileName().toString();
+        this.size = channel.size();
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    @Nullable
+    public Core.UploadFileRequest next() throws IOException {
+        if (!headerSent) {
+            headerSent = true;
+            return Core.UploadFileRequest.newBuilder()
+                    .setHeader(Core.UploadFileHeader.newBuilder()
+                            .setFileName(fileName)
+                            .setSize(size))
+                    .build();
+        }
+        if (window == null || !window.hasRemaining()) {
+            if (window != null) {
+                windowStart += window.capacity();
+            }
+            if (windowStart >= size) {
+                return null;
+            }
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(MAX_WINDOW_SIZE, size - windowStart));
+        }
+        int length = Math.min(chunkSize, window.remaining());
+        // safe, since gRPC serializes the message within onNext(), i.e. before the window is unmapped
+        Ccp.BinaryData chunk = Ccp.BinaryData.newBuilder()
+                .setByteLength(length)
+                .setContent(UnsafeByteOperations.unsafeWrap(window.slice(window.position(), length)))
+                .build();
+        window.position(window.position() + length);
+        return Core.UploadFileRequest.newBuilder().setChunk(chunk).build();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,270 @@
+package io.corrlang.cli;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Applies many CorrSpecs (given as directory or glob) at once.
+ * <p>
+ * A CorrSpec depends on another one if it references endpoints (in correspondences) that are declared
+ * in the other one, hence it is merged after the other one. Independent CorrSpecs are merged concurrently
+ * on virtual threads, bounded by the given parallelism, while CorrSpecs of the same project are always merged
+ * one after another. All merges share the channel of the given client.
+ * <p>
+ * The dependencies are only approximated: the CorrSpecs are scanned for `endpoint` declarations and
+ * `correspondence` arguments (ignoring comments and string literals) instead of being parsed by the core service.
+ * Endpoints are matched by their simple name, a declaration in the same project takes precedence, and a name
+ * declared in several other projects is ambiguous and does not give a dependency. Hence, a CorrSpec that is
+ * not recognized by these patterns may be merged too early, and the core service reports the missing endpoint then.
+ */
+class MultiProjectApplier {
+
+    public static final String CORRSPEC_EXTENSION = ".corr";
+
+    private static final Pattern ENDPOINT_DECLARATION = Pattern.compile("\\bendpoint\\s+([\\w.]+)");
+
+    private static final Pattern COMMENTS_AND_STRINGS = Pattern.compile("//[^\\n]*|/\\*.*?\\*/|\"(?:\\\\.|[^\"\\\\])*\"", Pattern.DOTALL);
+
+    private static final Pattern CORRESPONDENCE_REFERENCES = Pattern.compile("\\bcorrespondence\\s+[\\w.]+\\s*\\(([^)]*)\\)");
+
+    record Spec(Path file, String project, Set<String> declaredEndpoints, Set<String> referencedEndpoints) {}
+
+    private final CoreServiceClient client;
+
+    @Nullable
+    private final Path stateDir;
+
+    private final int parallelism;
+
+    /**
+     * @param stateDir if given, CorrSpecs that have not changed since their last apply are skipped
+     */
+    MultiProjectApplier(CoreServiceClient client, @Nullable Path stateDir, int parallelism) {
+        this.client = client;
+        this.stateDir = stateDir;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Whether the argument of '-f' denotes several CorrSpecs rather than a single file.
+     */
+    static boolean isMultiple(Path base, String argument) {
+        return containsGlob(argument) || Files.isDirectory(base.resolve(argument));
+    }
+
+    /**
+     * @param project if given, all CorrSpecs belong to this project, otherwise each directory is a project
+     */
+    public Dto.CorrSpecsApplied apply(Path base, String argument, @Nullable String project) throws IOException {
+        long start = System.nanoTime();
+        List<Spec> specs = new ArrayList<>();
+        for (Path file : discover(base, argument)) {
+            specs.add(parse(file, project != null ? project : file.getParent().toString()));
+        }
+        if (specs.isEmpty()) {
+            throw new IllegalArgumentException("No CorrSpec files (*" + CORRSPEC_EXTENSION + ") found at '" + argument + "'!");
+        }
+        Map<Spec, Set<Spec>> dependencies = schedule(specs);
+
+        Map<Spec, CompletableFuture<Dto.ProjectApplied>> results = new LinkedHashMap<>();
+        Semaphore permits = new Semaphore(parallelism);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Spec spec : dependencies.keySet()) {
+                List<CompletableFuture<Dto.ProjectApplied>> prerequisites = dependencies.get(spec).stream().map(results::get).toList();
+                CompletableFuture<Dto.ProjectApplied> result = CompletableFuture.allOf(prerequisites.toArray(CompletableFuture[]::new))
+                        .thenApplyAsync(ignored -> {
+                            List<String> failed = prerequisites.stream()
+                                    .map(CompletableFuture::join)
+                                    .filter(p -> !p.succeeded())
+                                    .map(p -> p.file().toString())
+                                    .toList();
+                            if (!failed.isEmpty()) {
+                                return new Dto.ProjectApplied(spec.project(), spec.file(), Duration.ZERO, null, "Skipped, since " + String.join(", ", failed) + " failed.");
+                            }
+                            return merge(spec, permits);
+                        }, executor);
+                results.put(spec, result);
+            }
+            List<Dto.ProjectApplied> applied = new ArrayList<>();
+            for (CompletableFuture<Dto.ProjectApplied> result : results.values()) {
+                applied.add(result.join());
+            }
+            return new Dto.CorrSpecsApplied(applied, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private Dto.ProjectApplied merge(Spec spec, Semaphore permits) {
+        long start = 0;
+        try {
+            permits.acquire();
+            try {
+                start = System.nanoTime();
+                String basePath = spec.file().getParent().toString();
+                String corrSpec = spec.file().getFileName().toString();
+                Dto result = stateDir != null ?
+                        new IncrementalApplier(client, stateDir, spec.project()).applyCorrSpec(basePath, corrSpec) :
+                        client.applyCorrSpec(spec.project(), basePath, corrSpec);
+                return new Dto.ProjectApplied(spec.project(), spec.file(), Duration.ofNanos(System.nanoTime() - start), result, null);
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Dto.ProjectApplied(spec.project(), spec.file(), Duration.ZERO, null, "Interrupted");
+        } catch (Exception e) {
+            return new Dto.ProjectApplied(spec.project(), spec.file(), Duration.ofNanos(System.nanoTime() - start), null, e.getMessage());
+        }
+    }
+
+    private static List<Path> discover(Path base, String argument) throws IOException {
+        Path root;
+        PathMatcher matcher;
+        if (containsGlob(argument)) {
+            // walk from the longest prefix without wildcards
+            Path pattern = base.resolve(argument).toAbsolutePath().normalize();
+            root = pattern.getRoot();
+            for (Path segment : pattern) {
+                if (containsGlob(segment.toString())) {
+                    break;
+                }
+                root = root.resolve(segment);
+            }
+            matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern.toString().replace("\\", "\\\\"));
+        } else {
+            root = base.resolve(argument).toAbsolutePath().normalize();
+            matcher = p -> p.getFileName().toString().endsWith(CORRSPEC_EXTENSION);
+        }
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).filter(matcher::matches).sorted().toList();
+        }
+    }
+
+    private static boolean containsGlob(String s) {
+        return s.contains("*") || s.contains("?") || s.contains("[") || s.contains("{");
+    }
+
+    static Spec parse(Path file, String project) throws IOException {
+        String content = COMMENTS_AND_STRINGS.matcher(Files.readString(file)).replaceAll(" ");
+        Set<String> declared = new LinkedHashSet<>();
+        Matcher matcher = ENDPOINT_DECLARATION.matcher(content);
+        while (matcher.find()) {
+            declared.add(simpleName(matcher.group(1)));
+        }
+        Set<String> referenced = new LinkedHashSet<>();
+        matcher = CORRESPONDENCE_REFERENCES.matcher(content);
+        while (matcher.find()) {
+            for (String endpoint : matcher.group(1).split(",")) {
+                if (!endpoint.isBlank()) {
+                    referenced.add(simpleName(endpoint.trim()));
+                }
+            }
+        }
+        referenced.removeAll(declared);
+        return new Spec(file, project, declared, referenced);
+    }
+
+    private static String simpleName(String qualifiedName) {
+        return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * The specs in the order in which they are merged, each with the specs that have to be merged before it.
+     *
+     * @throws IllegalArgumentException if the specs depend on each other cyclically
+     */
+    static Map<Spec, Set<Spec>> schedule(List<Spec> specs) {
+        Map<Spec, Set<Spec>> dependencies = dependencies(specs);
+        Map<Spec, Set<Spec>> result = new LinkedHashMap<>();
+        // specs of the same project are merged one after another (in an order that respects their references)
+        Map<String, Spec> lastOfProject = new HashMap<>();
+        for (Spec spec : topologicalOrder(specs, dependencies)) {
+            Set<Spec> prerequisites = new LinkedHashSet<>(dependencies.get(spec));
+            Spec previous = lastOfProject.put(spec.project(), spec);
+            if (previous != null) {
+                prerequisites.add(previous);
+            }
+            result.put(spec, prerequisites);
+        }
+        return result;
+    }
+
+    /**
+     * A spec depends on the specs declaring the endpoints it references.
+     */
+    private static Map<Spec, Set<Spec>> dependencies(List<Spec> specs) {
+        Map<String, List<Spec>> declaringSpecs = new HashMap<>();
+        for (Spec spec : specs) {
+            for (String endpoint : spec.declaredEndpoints()) {
+                declaringSpecs.computeIfAbsent(endpoint, e -> new ArrayList<>()).add(spec);
+            }
+        }
+        Map<Spec, Set<Spec>> result = new HashMap<>();
+        for (Spec spec : specs) {
+            Set<Spec> deps = new LinkedHashSet<>();
+            for (String endpoint : spec.referencedEndpoints()) {
+                List<Spec> declaring = declaringSpecs.getOrDefault(endpoint, List.of());
+                List<Spec> sameProject = declaring.stream().filter(d -> d.project().equals(spec.project())).toList();
+                if (!sameProject.isEmpty()) {
+                    deps.addAll(sameProject);
+                } else if (declaring.size() == 1) {
+                    deps.add(declaring.get(0));
+                }
+            }
+            deps.remove(spec);
+            result.put(spec, deps);
+        }
+        return result;
+    }
+
+    private static List<Spec> topologicalOrder(List<Spec> specs, Map<Spec, Set<Spec>> dependencies) {
+        List<Spec> result = new ArrayList<>();
+        Set<Spec> done = new HashSet<>();
+        Set<Spec> visiting = new LinkedHashSet<>();
+        for (Spec spec : specs) {
+            visit(spec, dependencies, done, visiting, result);
+        }
+        return result;
+    }
+
+    private static void visit(Spec spec, Map<Spec, Set<Spec>> dependencies, Set<Spec> done, Set<Spec> visiting, List<Spec> result) {
+        if (done.contains(spec)) {
+            return;
+        }
+        if (!visiting.add(spec)) {
+            List<String> cycle = new ArrayList<>();
+            for (Spec s : visiting) {
+                cycle.add(s.file().getFileName().toString());
+            }
+            throw new IllegalArgumentException("Cyclic dependency between CorrSpecs: " + String.join(" -> ", cycle) + " -> " + spec.file().getFileName());
+        }
+        for (Spec dependency : dependencies.get(spec)) {
+            visit(dependency, dependencies, done, visiting, result);
+        }
+        visiting.remove(spec);
+        done.add(spec);
+        result.add(spec);
+    }
+}
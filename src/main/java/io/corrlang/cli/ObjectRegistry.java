@@ -0,0 +1,121 @@
+package io.corrlang.cli;
+
+import io.corrlang.protocol.Ccp;
+import io.corrlang.protocol.Core;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Client-side index of the objects (endpoints, correspondences, views) registered at the core service.
+ * The index is kept for the rest of the session, i.e. the lifetime of the client.
+ * Mutations performed through the client must update or invalidate it.
+ * <p>
+ * If the core service supports filtering objects by name and id, only the objects that are actually
+ * looked up are fetched. Otherwise, the complete registry is loaded with a single request on first use
+ * and filtered on the client side.
+ */
+class ObjectRegistry {
+
+    record Key(String project, Ccp.CorrLangObjectType type, String name) {}
+
+    private final Function<Core.GetObjectsRequest, List<Ccp.CorrLangObject>> query;
+
+    private final BooleanSupplier supportsFilters;
+
+    private final Map<Key, Ccp.CorrLangObject> byName = new HashMap<>();
+
+    private final Map<Integer, Ccp.CorrLangObject> byId = new HashMap<>();
+
+    /**
+     * Whether the index contains the complete registry.
+     */
+    private boolean complete = false;
+
+    ObjectRegistry(Function<Core.GetObjectsRequest, List<Ccp.CorrLangObject>> query, BooleanSupplier supportsFilters) {
+        this.query = query;
+        this.supportsFilters = supportsFilters;
+    }
+
+    /**
+     * Finds an object by its name within a project.
+     * If no project is given, the first object with the given name in any project is returned.
+     */
+    synchronized Optional<Ccp.CorrLangObject> find(@Nullable String project, Ccp.CorrLangObjectType type, String name) {
+        Optional<Ccp.CorrLangObject> cached = project != null ?
+                Optional.ofNullable(byName.get(new Key(project, type, name))) :
+                findIndexed(o -> o.getObjectType() == type && o.getName().equals(name));
+        if (cached.isPresent() || complete) {
+            return cached;
+        }
+        if (supportsFilters.getAsBoolean()) {
+            Core.GetObjectsRequest.Builder request = Core.GetObjectsRequest.newBuilder()
+                    .setObjectType(type)
+                    .setName(name)
+                    .setLimit(1);
+            if (project != null) {
+                request.setProject(project);
+            }
+            fetch(request.build());
+        } else {
+            loadAll();
+        }
+        return project != null ?
+                Optional.ofNullable(byName.get(new Key(project, type, name))) :
+                findIndexed(o -> o.getObjectType() == type && o.getName().equals(name));
+    }
+
+    synchronized Optional<Ccp.CorrLangObject> find(int oid) {
+        if (byId.containsKey(oid) || complete) {
+            return Optional.ofNullable(byId.get(oid));
+        }
+        if (supportsFilters.getAsBoolean()) {
+            fetch(Core.GetObjectsRequest.newBuilder().addIds(oid).setLimit(1).build());
+        } else {
+            loadAll();
+        }
+        return Optional.ofNullable(byId.get(oid));
+    }
+
+    /**
+     * Adds a newly registered object, so that it can be found without asking the core service again.
+     */
+    synchronized void add(Ccp.CorrLangObject object) {
+        index(object);
+    }
+
+    /**
+     * Drops the index, objects will be fetched again on next access.
+     */
+    synchronized void invalidate() {
+        byName.clear();
+        byId.clear();
+        complete = false;
+    }
+
+    private Optional<Ccp.CorrLangObject> findIndexed(Predicate<Ccp.CorrLangObject> filter) {
+        return byId.values().stream().filter(filter).findFirst();
+    }
+
+    private void fetch(Core.GetObjectsRequest request) {
+        for (Ccp.CorrLangObject o : query.apply(request)) {
+            index(o);
+        }
+    }
+
+    private void loadAll() {
+        fetch(Core.GetObjectsRequest.newBuilder().build());
+        complete = true;
+    }
+
+    private void index(Ccp.CorrLangObject o) {
+        byName.put(new Key(o.getProject(), o.getObjectType(), o.getName()), o);
+        byId.put(o.getId(), o);
+    }
+}
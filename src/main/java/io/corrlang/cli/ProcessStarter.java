@@ -1,62 +1,217 @@
 package io.corrlang.cli;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.Optional;
 
 /**
  * Starts a process for the CorrLang core service in the background.
+ * <p>
+ * The output of the process is appended to `CORRLANG_HOME/logs/service.out`, i.e. the service never blocks
+ * on a full pipe, and its pid is recorded in `CORRLANG_HOME/PID`. The process writes to the file directly,
+ * hence the file is only rotated when the service is (re)started, and it may grow beyond
+ * {@link #MAX_OUTPUT_SIZE} while the service is running.
  */
 public class ProcessStarter {
 
     private static final String CORE_SERVICE_MAIN = "io.corrlang.service.CoreServiceMain";
 
-    public static void startCoreServiceProcess(File corrlangHome) {
-        String jvm;
-        if (System.getenv("CORRLANG_JAVA") != null) {
-            jvm =  System.getenv("CORRLANG_JAVA") + "/bin/java";
-        } else if (System.getenv("JAVA_HOME") != null) {
-            jvm =  System.getenv("JAVA_HOME") + "/bin/java";
+    public static final String PORT_FILE = "PORT";
+
+    public static final String PID_FILE = "PID";
+
+    private static final String OUTPUT_FILE = "service.out";
+
+    /**
+     * Size from which the output file is rotated at the next start, not a limit while the service is running.
+     */
+    private static final long MAX_OUTPUT_SIZE = 10L * 1024 * 1024;
+
+    private static final int MAX_OUTPUT_HISTORY = 5;
+
+    /**
+     * Starts the core service with the JVM settings and the startup archive (if it has been trained) of the installation.
+     */
+    public static Process startCoreServiceProcess(File corrlangHome, JvmConfig jvmConfig) {
+        return startCoreServiceProcess(corrlangHome, jvmConfig, StartupArchive.launchOptions(corrlangHome.toPath()));
+    }
+
+    /**
+     * @param additionalOptions JVM options passed after the ones of the JVM configuration
+     */
+    public static Process startCoreServiceProcess(File corrlangHome, JvmConfig jvmConfig, List<String> additionalOptions) {
+        try {
+            Process process = startCoreServiceProcess(
+                    corrlangHome,
+                    Installation.currentDir(corrlangHome.toPath()),
+                    corrlangHome.toPath().resolve(Installer.CONFIG_FILE_NAME),
+                    jvmConfig,
+                    additionalOptions);
+            recordPid(corrlangHome.toPath(), process);
+            return process;
+        } catch (IOException e) {
+            throw new RuntimeException("ERROR: Failed to start CorrLang core service process", e);
+        }
+    }
+
+    /**
+     * Starts the given installation without recording the pid (see {@link #recordPid(Path, Process)}),
+     * i.e. the process may run next to the recorded service until it has proven to be ready (e.g. during an upgrade).
+     *
+     * @param installationDir the directory of the version to start, the class path refers to its real location,
+     *                        i.e. the process is not affected by switching the active version later on
+     * @param configFile      the configuration passed to the service
+     */
+    public static Process startCoreServiceProcess(File corrlangHome, Path installationDir, Path configFile, JvmConfig jvmConfig, List<String> additionalOptions) throws IOException {
+        String jvm = jvmConfig.javaExecutable();
+
+        Path realDir = installationDir.toRealPath();
+        Optional<InstallManifest> manifest = InstallManifest.read(realDir);
+        Optional<Path> argFile = manifest.flatMap(m -> m.argFile(realDir));
+
+        List<String> command = new ArrayList<>();
+        command.add(jvm);
+        command.addAll(jvmConfig.toOptions(corrlangHome.toPath()));
+        command.addAll(additionalOptions);
+        if (argFile.isPresent()) {
+            command.add("@" + argFile.get());
         } else {
-            jvm = "java";
+            command.add("-cp");
+            command.add(classpath(realDir, manifest));
+        }
+        command.add(CORE_SERVICE_MAIN);
+        command.add(configFile.toAbsolutePath().toString());
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        try {
+            // redirected by the OS, not drained by the CLI, which may exit while the service keeps running
+            Path outputFile = rotateOutput(corrlangHome.toPath());
+            processBuilder.redirectErrorStream(true);
+            processBuilder.redirectOutput(ProcessBuilder.Redirect.appendTo(outputFile.toFile()));
+            Process process = processBuilder.start();
+            System.out.println("INFO: Started CorrLang core service process (pid " + process.pid() + ", output in '" + outputFile + "')");
+            return process;
+        } catch (Exception e) {
+            throw new RuntimeException("ERROR: Failed to start CorrLang core service process", e);
         }
+    }
+
+    /**
+     * Whether the core service of the installation is running, i.e. its recorded process is alive
+     * or a service is listening on the port of its PORT file.
+     */
+    public static boolean isServiceRunning(Path corrlangHome) throws IOException {
+        Path portFile = corrlangHome.resolve(PORT_FILE);
+        return runningProcess(corrlangHome).isPresent() || Files.exists(portFile) && isListening(Files.readString(portFile).trim());
+    }
 
-        File libDir = new File(corrlangHome, "lib");
+    private static boolean isListening(String port) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(port)), 500);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Records the given process as the core service of the installation, i.e. the one {@link #runningProcess(Path)} refers to.
+     */
+    public static void recordPid(Path corrlangHome, Process process) throws IOException {
+        Path pidFile = corrlangHome.resolve(PID_FILE);
+        Path tmp = pidFile.resolveSibling(PID_FILE + ".tmp");
+        Files.writeString(tmp, Long.toString(process.pid()));
+        Files.move(tmp, pidFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * The class path from the manifest, or of all jars in `lib` for an installation without manifest.
+     */
+    private static String classpath(Path installationDir, Optional<InstallManifest> manifest) {
         List<String> classpath = new ArrayList<>();
-        if (libDir.exists() && libDir.isDirectory()) {
+        File libDir = installationDir.resolve("lib").toFile();
+        if (manifest.isPresent()) {
+            manifest.get().absoluteClasspath(installationDir).forEach(jar -> classpath.add(jar.toString()));
+        } else if (libDir.exists() && libDir.isDirectory()) {
             File[] files = libDir.listFiles((dir, name) -> name.endsWith(".jar"));
             if (files != null) {
+                // archived classes are only used if the class path is the same as in the training run
+                Arrays.sort(files);
                 for (File file : files) {
                     classpath.add(file.getAbsolutePath());
                 }
             }
         }
+        return String.join(File.pathSeparator, classpath);
+    }
 
-        StringBuilder classpathString = new StringBuilder();
-        ListIterator<String> cpIterator = classpath.listIterator();
-        while (cpIterator.hasNext()) {
-            classpathString.append(cpIterator.next());
-            if (cpIterator.hasNext()) {
-                classpathString.append(File.pathSeparator);
+    /**
+     * Rotates the output file of the previous runs if it has grown too large and returns the output file for the next start.
+     */
+    private static Path rotateOutput(Path corrlangHome) throws IOException {
+        Path logDir = corrlangHome.resolve("logs");
+        Files.createDirectories(logDir);
+        Path outputFile = logDir.resolve(OUTPUT_FILE);
+        if (Files.exists(outputFile) && Files.size(outputFile) > MAX_OUTPUT_SIZE) {
+            Files.deleteIfExists(logDir.resolve(OUTPUT_FILE + "." + MAX_OUTPUT_HISTORY));
+            for (int i = MAX_OUTPUT_HISTORY - 1; i >= 1; i--) {
+                Path older = logDir.resolve(OUTPUT_FILE + "." + i);
+                if (Files.exists(older)) {
+                    Files.move(older, logDir.resolve(OUTPUT_FILE + "." + (i + 1)));
+                }
             }
+            Files.move(outputFile, logDir.resolve(OUTPUT_FILE + ".1"));
         }
+        return outputFile;
+    }
 
-        ProcessBuilder processBuilder = new ProcessBuilder(
-                jvm,
-                "-cp",
-                classpathString.toString(),
-                CORE_SERVICE_MAIN,
-                new File(corrlangHome, "config.toml").getAbsolutePath()
-        );
-        // processBuilder.inheritIO();
+    /**
+     * The pid of the core service process recorded at its start, if it is still alive.
+     */
+    public static Optional<ProcessHandle> runningProcess(Path corrlangHome) {
+        Path pidFile = corrlangHome.resolve(PID_FILE);
         try {
-            processBuilder.start();
-            System.out.println("INFO: Started CorrLang core service process");
-        } catch (Exception e) {
-            throw new RuntimeException("ERROR: Failed to start CorrLang core service process", e);
+            long pid = Long.parseLong(Files.readString(pidFile).trim());
+            return ProcessHandle.of(pid).filter(ProcessHandle::isAlive);
+        } catch (IOException | NumberFormatException e) {
+            return Optional.empty();
         }
     }
 
+    /**
+     * Removes the PORT and SOCKET files left behind by a core service that has terminated without cleaning up,
+     * e.g. after a crash. Returns false if there is nothing to clean up, or if the process is unknown or still alive.
+     * The PORT file is kept if a service is listening on its port, i.e. it has been taken over by another service.
+     */
+    public static boolean cleanUpStaleFiles(Path corrlangHome) throws IOException {
+        Path pidFile = corrlangHome.resolve(PID_FILE);
+        if (!Files.exists(pidFile) || runningProcess(corrlangHome).isPresent()) {
+            return false;
+        }
+        Path portFile = corrlangHome.resolve(PORT_FILE);
+        boolean removed = false;
+        if (Files.exists(portFile) && !isListening(Files.readString(portFile).trim())) {
+            removed = Files.deleteIfExists(portFile);
+        }
+        Path socketFile = corrlangHome.resolve(DomainSocketChannels.SOCKET_FILE);
+        if (Files.exists(socketFile)) {
+            String socket = Files.readString(socketFile).trim();
+            if (!socket.isEmpty()) {
+                Files.deleteIfExists(Path.of(socket));
+            }
+            Files.delete(socketFile);
+            removed = true;
+        }
+        Files.delete(pidFile);
+        return removed;
+    }
 
 }
@@ -0,0 +1,40 @@
+package io.corrlang.cli;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The files of a CorrLang release with their SHA-256 hashes and sizes, published as `<version>/manifest.sha256`.
+ * Every line has the form `<sha256> <size> <path>`, where the path is relative to the distribution root
+ * (e.g. `lib/corrlang-core-1.0.jar`) and the file itself is published as `<version>/files/<path>`.
+ */
+record ReleaseManifest(List<Entry> entries) {
+
+    public static final String FILE_NAME = "manifest.sha256";
+
+    public static final String FILES_DIR = "files/";
+
+    record Entry(String path, String sha256, long size) {}
+
+    static ReleaseManifest parse(String content) {
+        List<Entry> entries = new ArrayList<>();
+        int lineNo = 0;
+        for (String line : content.split("\\R")) {
+            lineNo++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.trim().split("\\s+", 3);
+            if (parts.length != 3 || !parts[0].matches("[0-9a-fA-F]{64}")) {
+                throw new IllegalArgumentException("Malformed line " + lineNo + " in release manifest: " + line);
+            }
+            String path = parts[2].replace('\\', '/');
+            if (path.startsWith("/") || List.of(path.split("/")).contains("..")) {
+                throw new IllegalArgumentException("Invalid path in line " + lineNo + " of release manifest: " + path);
+            }
+            entries.add(new Entry(path, parts[0].toLowerCase(Locale.ROOT), Long.parseLong(parts[1])));
+        }
+        return new ReleaseManifest(List.copyOf(entries));
+    }
+}
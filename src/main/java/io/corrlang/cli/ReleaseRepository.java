@@ -0,0 +1,70 @@
+package io.corrlang.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * The location where CorrLang releases are published, i.e. `<base>/<version>/<file>`.
+ * Besides HTTP(S) servers, local directories (`file:` URIs, e.g. a mirror on a network share) are supported.
+ */
+interface ReleaseRepository {
+
+    /**
+     * The content of the given file of the given release, empty if the release does not contain the file.
+     */
+    Optional<InputStream> open(String version, String file) throws IOException, InterruptedException;
+
+    static ReleaseRepository forBase(URI base) {
+        if ("file".equals(base.getScheme())) {
+            return new Directory(Path.of(base));
+        }
+        return new Http(base);
+    }
+
+    record Directory(Path base) implements ReleaseRepository {
+
+        @Override
+        public Optional<InputStream> open(String version, String file) throws IOException {
+            Path path = base.resolve(version).resolve(file);
+            return Files.isRegularFile(path) ? Optional.of(Files.newInputStream(path)) : Optional.empty();
+        }
+    }
+
+    final class Http implements ReleaseRepository {
+
+        private final URI base;
+
+        private final HttpClient httpClient = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+
+        Http(URI base) {
+            String s = base.toString();
+            this.base = URI.create(s.endsWith("/") ? s : s + "/");
+        }
+
+        @Override
+        public Optional<InputStream> open(String version, String file) throws IOException, InterruptedException {
+            HttpResponse<InputStream> response = httpClient.send(
+                    HttpRequest.newBuilder(base.resolve(version + "/" + file)).GET().build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            if (response.statusCode() == 404) {
+                response.body().close();
+                return Optional.empty();
+            } else if (response.statusCode() != 200) {
+                response.body().close();
+                throw new IOException("Failed to download '" + file + "' of CorrLang version '" + version + "': HTTP status " + response.statusCode());
+            }
+            return Optional.of(response.body());
+        }
+    }
+}
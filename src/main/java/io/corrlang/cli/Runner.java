@@ -5,15 +5,24 @@ import io.grpc.StatusRuntimeException;
 import org.apache.commons.cli.*;
 import org.apache.commons.cli.help.HelpFormatter;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.net.ServerSocket;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class Runner {
 
@@ -31,12 +40,14 @@ public class Runner {
     public static final String STATUS_CMD = "status";
     public static final String UP_CMD = "up";
     public static final String DOWN_CMD = "down";
+    public static final String UPGRADE_CMD = "upgrade";
     public static final String LIST_CMD = "list";
     public static final String APPLY_CMD = "apply";
     public static final String GET_CMD = "get";
     public static final String HELP_CMD = "help";
     public static final String SCHEMA_CMD = "schema";
     public static final String PLUGINS_CMD = "plugins";
+    public static final String PUSH_CMD = "push";
 
     public static final String SHORT_OPT_CORRLANG_HOME = "H";
     public static final String LONG_OPT_CORRLANG_HOME = "home";
@@ -46,6 +57,9 @@ public class Runner {
     public static final String SHORT_OPT_CORRLANG_PORT = "P";
     public static final String LONG_OPT_CORRLANG_PORT = "port";
 
+    public static final String ENV_CORRLANG_HOST = "CORRLANG_HOST";
+    public static final String LONG_OPT_CORRLANG_HOST = "host";
+
     public static final String ENV_CORRLANG_JAVA = "CORRLANG_JAVA";
     public static final String SHORT_OPT_CORRLANG_JAVA = "J";
     public static final String LONG_OPT_CORRLANG_JAVA = "java";
@@ -57,7 +71,11 @@ public class Runner {
     private static final String ENDPOINT_KIND_OPTION_SERVICE = "service";
     private static final String ENDPOINT_KIND_OPTION_SOURCE = "source";
     private static final String ENDPOINT_KIND_OPTION_SINK = "sink";
-    private static final int MAX_TRIES = 10;
+    private static final Duration WATCH_DEBOUNCE = Duration.ofMillis(300);
+    private static final Duration SUPERVISOR_INITIAL_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration SUPERVISOR_MAX_BACKOFF = Duration.ofMinutes(1);
+    private static final int UPGRADE_DRAIN_PERIOD_S = 10;
+    private static final Duration SERVICE_STOP_TIMEOUT = Duration.ofSeconds(10);
 
 
     private final Option fileOption = Option.builder()
@@ -65,7 +83,7 @@ public class Runner {
             .longOpt("file")
             .hasArg()
             .type(Path.class)
-            .desc("The path of a 'spec(ification)' file that shall be applied")
+            .desc("The path of a 'spec(ification)' file that shall be applied, for 'apply' also a directory or glob (e.g. 'specs/**.corr') of several CorrSpecs")
             .get();
 
     private final Option techSpaceOption = Option.builder()
@@ -116,6 +134,56 @@ public class Runner {
             .hasArg()
             .get();
 
+    private final Option watchOption = Option.builder()
+            .longOpt("watch")
+            .hasArg(false)
+            .desc("Keeps watching the CorrSpec file given with '-f' and the files it references, and merges it again when their content changes")
+            .get();
+
+    private final Option forceOption = Option.builder()
+            .longOpt("force")
+            .hasArg(false)
+            .desc("Applies the CorrSpec, schema or data even if nothing has changed since it was last applied")
+            .get();
+
+    private final Option trainOption = Option.builder()
+            .longOpt("train")
+            .hasArg(false)
+            .desc("Performs a training run of the core service before starting it, which records a class-data-sharing archive " +
+                    "that is used to speed up all further starts of the installed version")
+            .get();
+
+    private final Option fromOption = Option.builder()
+            .longOpt("from")
+            .hasArg()
+            .type(Path.class)
+            .desc("Installs the CorrLang distribution from the given archive (zip) or directory instead of downloading it, " +
+                    "e.g. on hosts without internet access")
+            .get();
+
+    private final Option superviseOption = Option.builder()
+            .longOpt("supervise")
+            .hasArg(false)
+            .desc("Keeps running in the foreground after starting the core service and restarts it (with exponential backoff) " +
+                    "whenever it crashes")
+            .get();
+
+    private final Option jvmProfileOption = Option.builder()
+            .longOpt("jvm-profile")
+            .hasArg()
+            .type(String.class)
+            .desc("The JVM profile for starting the core service, e.g. 'low-latency', 'throughput' or 'small' " +
+                    "(overrides the profile given in the [jvm] section of the configuration)")
+            .get();
+
+    private final Option batchOption = Option.builder()
+            .longOpt("batch")
+            .desc("Expects the path of a batch manifest (a 'BatchRequest' in protobuf text format) and applies all contained " +
+                    "registrations atomically in a single request.")
+            .type(Path.class)
+            .hasArg()
+            .get();
+
     private final Option endpointKind = Option.builder()
             .option("k")
             .longOpt("endpoint-kind")
@@ -145,6 +213,13 @@ public class Runner {
             .hasArg(false)
             .get();
 
+    private final Option nameOption = Option.builder()
+            .longOpt("name")
+            .hasArg()
+            .type(String.class)
+            .desc("If specified, only the elements whose name starts with the given prefix will be listed.")
+            .get();
+
     private Options makeOptions() {
         Options result = new Options();
 
@@ -162,7 +237,14 @@ public class Runner {
         directModifications.addOption(schemaOption);
         directModifications.addOption(dataOption);
         directModifications.addOption(serviceOption);
+        directModifications.addOption(batchOption);
         result.addOptionGroup(directModifications);
+        result.addOption(watchOption);
+        result.addOption(forceOption);
+        result.addOption(trainOption);
+        result.addOption(jvmProfileOption);
+        result.addOption(superviseOption);
+        result.addOption(fromOption);
 
 
         OptionGroup overwriteOption = new OptionGroup();
@@ -179,9 +261,11 @@ public class Runner {
         result.addOptionGroup(overwriteOption);
 
         result.addOption(allOption);
+        result.addOption(nameOption);
 
 
         result.addOption(corrlangPort);
+        result.addOption(corrlangHost);
         result.addOption(corrlangJava);
         result.addOption(corrlangHome);
         result.addOption(corrlangVersion);
@@ -215,7 +299,18 @@ public class Runner {
             .type(Integer.class)
             .desc("The TCP port number of the CorrLang core-service for IPC. If not specified" +
                     " it will look for an environment variable " + ENV_CORRLANG_PORT + ", afterwards for a PORT file" +
-                    " in the CorrLang installation directory and then will fall back to the default 6969.")
+                    " in the CorrLang installation directory and then will fall back to the default 6969." +
+                    " If neither the option nor the environment variable is given and the core-service publishes a Unix domain socket" +
+                    " (SOCKET file in the CorrLang installation directory), the socket is preferred over TCP.")
+            .get();
+
+    private final Option corrlangHost = Option.builder()
+            .longOpt(LONG_OPT_CORRLANG_HOST)
+            .hasArg()
+            .type(String.class)
+            .desc("The host of the CorrLang core-service. If not specified it will look for an environment variable " +
+                    ENV_CORRLANG_HOST + " and then will fall back to 'localhost'. If the core-service runs on another host," +
+                    " schema and data files are uploaded to it.")
             .get();
 
     private final Option corrlangHome = Option.builder()
@@ -259,6 +354,53 @@ public class Runner {
         });
     }
 
+    private String getCorrLangHost(CommandLine line) throws ParseException {
+        return line.getParsedOptionValue(corrlangHost, () -> System.getenv().getOrDefault(ENV_CORRLANG_HOST, "localhost"));
+    }
+
+    /**
+     * Returns the Unix domain socket of the core-service if it has published one and the platform supports it,
+     * otherwise null, i.e. the client falls back to TCP. An explicitly given port or host always means TCP.
+     */
+    private Path getCorrLangSocket(CommandLine line, Path corrLangHome) {
+        if (line.hasOption(corrlangPort) || System.getenv().containsKey(ENV_CORRLANG_PORT) ||
+                line.hasOption(corrlangHost) || System.getenv().containsKey(ENV_CORRLANG_HOST)) {
+            return null;
+        }
+        Path socketFile = corrLangHome.resolve(DomainSocketChannels.SOCKET_FILE);
+        if (!Files.exists(socketFile)) {
+            return null;
+        }
+        try {
+            Path socket = Path.of(Files.readString(socketFile).trim());
+            if (Files.exists(socket) && DomainSocketChannels.isAvailable()) {
+                return socket;
+            }
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private ClientConfig getClientConfig(Path corrLangHome) {
+        try {
+            return ClientConfig.load(corrLangHome.resolve(Installer.CONFIG_FILE_NAME));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private JvmConfig getJvmConfig(CommandLine line, Path corrLangHome) throws ParseException {
+        String profile = line.getParsedOptionValue(jvmProfileOption);
+        try {
+            return JvmConfig.load(corrLangHome.resolve(Installer.CONFIG_FILE_NAME), profile);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (IllegalArgumentException e) {
+            throw new ParseException(e.getMessage());
+        }
+    }
+
     private String getEndpointKind(CommandLine line) throws ParseException {
         if (!line.hasOption(endpointKind)) {
             throw new ParseException("Missing required option '-k <endpoint-kind>'!");
@@ -300,11 +442,13 @@ public class Runner {
                             " * " + INSTALL_CMD + "\n" +
                             " * " + UP_CMD + "\n" +
                             " * " + DOWN_CMD + "\n" +
+                            " * " + UPGRADE_CMD + "\n" +
                             " * " + LIST_CMD + "\n" +
                             " * " + GET_CMD + "\n" +
                             " * " + APPLY_CMD + "\n\n" +
                             " * " + SCHEMA_CMD + "\n\n" +
                             " * " + PLUGINS_CMD + "\n\n" +
+                            " * " + PUSH_CMD + "\n\n" +
                             "Happy Linking!",
                     options,
                     "Please report issues on <https://codeberg.org/drstrudel/corrlang>!",
@@ -325,25 +469,38 @@ public class Runner {
                     case INSTALL_CMD -> performInstall(line);
                     case UP_CMD -> performServiceUp(line);
                     case DOWN_CMD -> performServiceDown(line);
+                    case UPGRADE_CMD -> performUpgrade(line);
                     case LIST_CMD -> performList(line);
                     case GET_CMD -> performGet(line);
                     case APPLY_CMD -> performApply(line);
                     case SCHEMA_CMD -> performSchema(line);
                     case PLUGINS_CMD -> performPlugins(line);
+                    case PUSH_CMD -> performPush(line);
                     default -> {
                         throw new ParseException("Unknown command: " + remainingArgs[0]);
                     }
                 };
             } catch (StatusRuntimeException e) {
-                Metadata trailers = e.getTrailers();
-                assert trailers != null;
-                String message = trailers.get(Metadata.Key.of("message", Metadata.ASCII_STRING_MARSHALLER));
-                throw new RuntimeException(message, e);
+                throw new RuntimeException(failureMessage(e), e);
             }
 
         }
     }
 
+    /**
+     * The message of the core service about a failed call.
+     */
+    static String failureMessage(StatusRuntimeException e) {
+        Metadata trailers = e.getTrailers();
+        String message = trailers != null ? trailers.get(Metadata.Key.of("message", Metadata.ASCII_STRING_MARSHALLER)) : null;
+        if (message == null) {
+            // failures of the transport (e.g. deadline exceeded, service unavailable) carry no message from the service
+            message = "Call to CorrLang core service failed: " + e.getStatus().getCode() +
+                    (e.getStatus().getDescription() != null ? " (" + e.getStatus().getDescription() + ")" : "");
+        }
+        return message;
+    }
+
     private Dto performPlugins(CommandLine line) throws ParseException {
         CoreServiceClient client = makeClient(line);
         return client.listTechspaces();
@@ -395,46 +552,225 @@ public class Runner {
         int port = getCorrLangPort(line, corrLangHome);
         String version = getCorrlangVersion(line);
         boolean overwrite = isOverwrite(line);
-        return Installer.downloadAndUnpackZip(corrLangHome, version, overwrite, port);
+        Path from = line.getParsedOptionValue(fromOption);
+        if (from != null && !Files.exists(from)) {
+            throw new ParseException("The distribution given by '--from' does not exist: '" + from.toAbsolutePath() + "'!");
+        }
+        return Installer.downloadAndUnpackZip(corrLangHome, version, overwrite, port, from);
     }
 
     /**
      * Starts the CorrLang core service.
      */
-    private Dto.CorrLangServiceStarted performServiceUp(CommandLine line) throws ParseException, IOException {
+    private Dto performServiceUp(CommandLine line) throws ParseException, IOException, InterruptedException {
         Path corrLangHome = getCorrLangHome(line);
-        Path portFile = corrLangHome.resolve("PORT");
+        Path portFile = corrLangHome.resolve(ProcessStarter.PORT_FILE);
+        if (ProcessStarter.cleanUpStaleFiles(corrLangHome)) {
+            System.out.println("INFO: Removed files of a CorrLang core service that is not running anymore");
+        }
         if (Files.exists(portFile)) {
+            if (line.hasOption(trainOption)) {
+                throw new ParseException("The CorrLang core service is already running, stop it with '" + DOWN_CMD + "' before training!");
+            }
+            if (line.hasOption(superviseOption)) {
+                throw new ParseException("The CorrLang core service is already running, stop it with '" + DOWN_CMD + "' before starting it supervised!");
+            }
             int port = Integer.parseInt(Files.readString(portFile));
-            return new Dto.CorrLangServiceStarted(port, true);
+            return new Dto.CorrLangServiceStarted(port, true, null);
         } else {
-            ProcessStarter.startCoreServiceProcess(corrLangHome.toFile());
-            int count = 0;
-            while (count < MAX_TRIES) {
+            Duration timeout = getClientConfig(corrLangHome).startupTimeout();
+            JvmConfig jvmConfig = getJvmConfig(line, corrLangHome);
+            if (line.hasOption(trainOption)) {
+                trainStartupArchive(line, corrLangHome, jvmConfig, timeout);
+            }
+            long start = System.nanoTime();
+            Process process = ProcessStarter.startCoreServiceProcess(corrLangHome.toFile(), jvmConfig);
+            int port = awaitStartup(line, portFile, timeout, process);
+            Dto.CorrLangServiceStarted started = new Dto.CorrLangServiceStarted(port, false, Duration.ofNanos(System.nanoTime() - start));
+            if (!line.hasOption(superviseOption)) {
+                return started;
+            }
+            started.print();
+            ServiceSupervisor supervisor = new ServiceSupervisor(corrLangHome, () -> {
+                Process restarted = ProcessStarter.startCoreServiceProcess(corrLangHome.toFile(), jvmConfig);
                 try {
-                    Thread.sleep(count * 100L);
-                } catch (InterruptedException e) {}
-                if (Files.exists(portFile)) {
-                    break;
+                    awaitStartup(line, portFile, timeout, restarted);
+                    return restarted;
+                } catch (Exception e) {
+                    restarted.destroyForcibly();
+                    throw e;
                 }
-                count++;
+            }, SUPERVISOR_INITIAL_BACKOFF, SUPERVISOR_MAX_BACKOFF);
+            supervisor.supervise(process);
+            return null;
+        }
+    }
+
+    private int awaitStartup(CommandLine line, Path portFile, Duration timeout, Process process) throws ParseException, IOException, InterruptedException {
+        long start = System.nanoTime();
+        int port = ServiceReadiness.awaitPortFile(portFile, timeout, process);
+        // the service publishes its port before it is necessarily able to answer
+        Duration remaining = timeout.minusNanos(System.nanoTime() - start);
+        if (!makeClient(line).awaitReady(remaining)) {
+            throw new RuntimeException("Failed to start CorrLang core service within " + timeout.toSeconds() + "s!");
+        }
+        return port;
+    }
+
+    /**
+     * Starts the core service in training mode, exercises its startup path and stops it again,
+     * whereupon the JVM writes the startup archive.
+     */
+    private void trainStartupArchive(CommandLine line, Path corrLangHome, JvmConfig jvmConfig, Duration timeout) throws ParseException, IOException, InterruptedException {
+        System.out.println(" - Performing training run of the CorrLang core service...");
+        long start = System.nanoTime();
+        List<String> trainingOptions = StartupArchive.trainingOptions(corrLangHome, jvmConfig.javaExecutable());
+        Process process = ProcessStarter.startCoreServiceProcess(corrLangHome.toFile(), jvmConfig, trainingOptions);
+        awaitStartup(line, corrLangHome.resolve(ProcessStarter.PORT_FILE), timeout, process);
+        CoreServiceClient client = makeClient(line);
+        client.getStatus();
+        client.listTechspaces();
+        client.shutdownService();
+        // the archive is written when the JVM exits
+        if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            process.destroy();
+            throw new RuntimeException("The training run of the CorrLang core service did not terminate within " + timeout.toSeconds() + "s!");
+        }
+        ProcessStarter.cleanUpStaleFiles(corrLangHome);
+        Path archive = StartupArchive.current(corrLangHome)
+                .orElseThrow(() -> new RuntimeException("The training run did not write a startup archive, exit code: " + process.exitValue()));
+        System.out.println(" - Wrote startup archive '" + archive + "' (" + Duration.ofNanos(System.nanoTime() - start).toMillis() + "ms).");
+    }
+
+
+    /**
+     * Installs another CorrLang version next to the active one and switches to it. If the core service is running,
+     * the new version is started on another port first, and the old service is only drained and stopped
+     * once the new one is ready, i.e. the service stays available during the upgrade. The new port is stored in
+     * the configuration.
+     */
+    private Dto.CorrLangUpgraded performUpgrade(CommandLine line) throws Exception {
+        long start = System.nanoTime();
+        Path corrLangHome = getCorrLangHome(line);
+        String version = getCorrlangVersion(line);
+        Path from = line.getParsedOptionValue(fromOption);
+        String previousVersion = Installer.getInstalledVersion(corrLangHome).orElse(null);
+        if (previousVersion == null) {
+            throw new ParseException("No CorrLang installation found at '" + corrLangHome.toAbsolutePath() + "', use '" + INSTALL_CMD + "' instead!");
+        }
+        if (from == null && version.equals(previousVersion)) {
+            throw new ParseException("CorrLang version '" + version + "' is already the active version!");
+        }
+        Dto.CorrLangInstalled installed = Installation.installedVersions(corrLangHome).contains(version) && !line.hasOption("overwrite") ?
+                new Dto.CorrLangInstalled(version, corrLangHome.toAbsolutePath().toString(), false) :
+                Installer.install(corrLangHome, version, true, getCorrLangPort(line, corrLangHome), from, false);
+        version = installed.version();
+
+        Path portFile = corrLangHome.resolve(ProcessStarter.PORT_FILE);
+        CoreServiceClient oldClient = makeClient(line);
+        if (!Files.exists(portFile) || !oldClient.checkConnection()) {
+            Installation.switchTo(corrLangHome, version);
+            return new Dto.CorrLangUpgraded(previousVersion, version, null, null, Duration.ofNanos(System.nanoTime() - start));
+        }
+        int oldPort = Integer.parseInt(Files.readString(portFile).trim());
+        // a service without PID file (e.g. started by an older CLI) still reports its pid
+        Optional<ProcessHandle> oldProcess = ProcessStarter.runningProcess(corrLangHome)
+                .or(() -> Optional.ofNullable(oldClient.getStatus().pid()).filter(pid -> pid > 0).flatMap(ProcessHandle::of));
+
+        // the new version runs next to the old one until it is ready
+        int newPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            newPort = socket.getLocalPort();
+        }
+        Path configFile = corrLangHome.resolve(Installer.CONFIG_FILE_NAME);
+        Path upgradeConfig = corrLangHome.resolve("config.upgrade.toml");
+        Installer.writeConfigWithPort(configFile, upgradeConfig, newPort);
+        ClientConfig clientConfig = getClientConfig(corrLangHome);
+        Process process;
+        try {
+            process = ProcessStarter.startCoreServiceProcess(
+                    corrLangHome.toFile(),
+                    Installation.versionDir(corrLangHome, version),
+                    upgradeConfig,
+                    getJvmConfig(line, corrLangHome),
+                    StartupArchive.launchOptions(corrLangHome, version));
+            CoreServiceClient newClient = new CoreServiceClient("localhost", newPort, null, clientConfig, null);
+            if (!newClient.awaitReady(clientConfig.startupTimeout())) {
+                process.destroyForcibly();
+                throw new RuntimeException("CorrLang version '" + version + "' did not become ready within " +
+                        clientConfig.startupTimeout().toSeconds() + "s, the service keeps running version '" + previousVersion + "'!");
+            }
+        } catch (Exception e) {
+            Files.deleteIfExists(upgradeConfig);
+            throw e;
+        }
+
+        // the new port becomes the configured one, i.e. later restarts ('down' and 'up') keep it
+        Files.move(upgradeConfig, configFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Installation.switchTo(corrLangHome, version);
+        // only now the new service becomes the recorded one, a failed start must not replace the running service
+        ProcessStarter.recordPid(corrLangHome, process);
+        writeAtomically(portFile, Integer.toString(newPort));
+        System.out.println(" - Switched to CorrLang version '" + version + "' on port " + newPort + ", draining the service on port " + oldPort + "...");
+        oldClient.shutdownService(UPGRADE_DRAIN_PERIOD_S);
+        Duration drainTimeout = Duration.ofSeconds(UPGRADE_DRAIN_PERIOD_S).plus(clientConfig.startupTimeout());
+        if (oldProcess.isPresent()) {
+            awaitExit(oldProcess.get(), drainTimeout);
+        } else {
+            awaitShutdown(oldClient, drainTimeout);
+        }
+        // the old service removes its files when it terminates, which it has done by now
+        writeAtomically(portFile, Integer.toString(newPort));
+        return new Dto.CorrLangUpgraded(previousVersion, version, oldPort, newPort, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Waits for the given process to terminate, which is requested (SIGTERM) and then forced if it takes too long.
+     */
+    private static void awaitExit(ProcessHandle process, Duration timeout) throws InterruptedException, ExecutionException {
+        try {
+            process.onExit().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return;
+        } catch (TimeoutException e) {
+            System.out.println(" - The service (pid " + process.pid() + ") did not terminate within " + timeout.toSeconds() + "s, stopping it...");
+            process.destroy();
+        }
+        try {
+            process.onExit().get(SERVICE_STOP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            process.destroyForcibly();
+            try {
+                process.onExit().get(SERVICE_STOP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                throw new RuntimeException("The CorrLang core service (pid " + process.pid() + ") could not be stopped!");
             }
-            if (!Files.exists(portFile)) {
-                throw new RuntimeException("Failed to start CorrLang core service within expected time!");
+        }
+    }
+
+    /**
+     * Waits until the service of the given client does not answer anymore, for a service whose process is unknown.
+     */
+    private static void awaitShutdown(CoreServiceClient client, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (client.checkConnection()) {
+            if (System.nanoTime() > deadline) {
+                throw new RuntimeException("The former CorrLang core service did not terminate within " + timeout.toSeconds() + "s!");
             }
-            int port = Integer.parseInt(Files.readString(portFile));
-            return new Dto.CorrLangServiceStarted(port, false);
+            Thread.sleep(200);
         }
     }
 
+    private static void writeAtomically(Path file, String content) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tmp, content);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
 
     /**
      * Stops the CorrLang core service.
      */
     private Dto.CorrLangServiceStopped performServiceDown(CommandLine line) throws ParseException {
-        Path corrLangHome = getCorrLangHome(line);
-        int corrLangPort = getCorrLangPort(line, corrLangHome);
-        CoreServiceClient client = new CoreServiceClient("localhost", corrLangPort);
+        CoreServiceClient client = makeClient(line);
         if (client.checkConnection()) {
             client.shutdownService();
             return new Dto.CorrLangServiceStopped(true);
@@ -501,7 +837,11 @@ public class Runner {
     private CoreServiceClient makeClient(CommandLine line) throws ParseException {
         Path corrLangHome = getCorrLangHome(line);
         int port = getCorrLangPort(line, corrLangHome);
-        return new CoreServiceClient("localhost", port);
+        ClientConfig config = getClientConfig(corrLangHome);
+        SchemaCache schemaCache = config.schemaCacheSize() > 0 ?
+                new SchemaCache(corrLangHome.resolve("cache").resolve("schemas"), config.schemaCacheSize()) :
+                null;
+        return new CoreServiceClient(getCorrLangHost(line), port, getCorrLangSocket(line, corrLangHome), config, schemaCache);
     }
 
     /**
@@ -511,14 +851,42 @@ public class Runner {
     private Dto performApply(CommandLine line) throws ParseException, URISyntaxException, IOException {
         CoreServiceClient client = makeClient(line);
         String project = getProject(line);
+        // skips what has not changed since the last apply
+        IncrementalApplier applier = line.hasOption(forceOption) ?
+                null :
+                new IncrementalApplier(client, getCorrLangHome(line).resolve("state"), project);
         if (line.hasOption(fileOption)) {
             Path base = Path.of(".");
+            if (MultiProjectApplier.isMultiple(base, line.getOptionValue(fileOption))) {
+                if (line.hasOption(watchOption)) {
+                    throw new ParseException("'--watch' is only supported for a single CorrSpec file!");
+                }
+                ClientConfig config = getClientConfig(getCorrLangHome(line));
+                MultiProjectApplier multiApplier = new MultiProjectApplier(
+                        client,
+                        line.hasOption(forceOption) ? null : getCorrLangHome(line).resolve("state"),
+                        config.applyParallelism());
+                return multiApplier.apply(base.toRealPath(), line.getOptionValue(fileOption), line.getParsedOptionValue(projectOption, () -> null));
+            }
             String absolute = base.toRealPath().toAbsolutePath().toString();
             String corrFile = base.resolve(line.getOptionValue(fileOption)).toString();
+            if (line.hasOption(watchOption)) {
+                Path baseDir = Path.of(absolute);
+                new CorrSpecWatcher(client, project, baseDir, baseDir.resolve(line.getOptionValue(fileOption)).normalize(), WATCH_DEBOUNCE).run();
+                return null;
+            }
 
+            if (applier != null) {
+                return applier.applyCorrSpec(absolute, corrFile);
+            }
             return client.applyCorrSpec(project, absolute,corrFile);
         }
 
+        if (line.hasOption(batchOption)) {
+            Path manifest = line.getParsedOptionValue(batchOption);
+            return client.applyBatch(project, manifest);
+        }
+
         if (line.hasOption(endpointOption)) {
             String endpoint = line.getParsedOptionValue(endpointOption);
             Optional<Integer> existingEndpoint = client.getEndpointId(project, endpoint);
@@ -562,7 +930,9 @@ public class Runner {
                     if (isUrl) {
                         updatedResult = client.applyAddEndpointSchemaURL(eid, techSpace, url);
                     } else {
-                        updatedResult = client.applyAddEndpointSchema(eid, techSpace, file);
+                        updatedResult = applier != null ?
+                                applier.applyAddEndpointSchema(eid, techSpace, file) :
+                                client.applyAddEndpointSchema(eid, techSpace, file);
                     }
                     if (existingEndpoint.isEmpty()) {
                         return createdResult;
@@ -602,11 +972,13 @@ public class Runner {
                 }
 
                 try {
-                    Dto.CorrLangObjectUpdated updatedResult;
+                    Dto updatedResult;
                     if (isUrl) {
                         updatedResult = client.applyAddEndpointDataURL(eid, techSpace, url);
                     } else {
-                        updatedResult = client.applyAddEndpointData(eid, techSpace, file);
+                        updatedResult = applier != null ?
+                                applier.applyAddEndpointData(eid, techSpace, file) :
+                                client.applyAddEndpointData(eid, techSpace, file);
                     }
 
                     if (endpoint.isEmpty()) {
@@ -645,7 +1017,7 @@ public class Runner {
                 }
 
                 try {
-                    Dto.CorrLangObjectUpdated updatedResult;
+                    Dto updatedResult;
                     if (isUrl) {
                         updatedResult = client.applyAddEndpointServiceURL(eid, techSpace, url);
                     } else {
@@ -671,8 +1043,18 @@ public class Runner {
         throw new ParseException("Missing required option! Please specify -f <file> to apply a CorrSpec file or use direct modification options!");
     }
 
+    /**
+     * Exports the schema of an endpoint via a techspace ('-t' and '-f') or prints it if no techspace is given.
+     */
     private Dto performSchema(CommandLine line) throws ParseException {
         String project = getProject(line);
+        if (!line.hasOption(endpointOption)) {
+            throw new ParseException("Missing required option '-e <endpoint>'!");
+        }
+        if (!line.hasOption(techSpaceOption)) {
+            String endpoint = line.getParsedOptionValue(endpointOption);
+            return makeClient(line).getSchema(project, endpoint);
+        }
         String techSpace = line.getParsedOptionValue(techSpaceOption);
         Path targetFile = line.getParsedOptionValue(fileOption);
         String endpoint = line.getParsedOptionValue(endpointOption);
@@ -680,6 +1062,29 @@ public class Runner {
         return client.exportEndpointSchema(project, endpoint, techSpace, targetFile);
     }
 
+    /**
+     * Streams data events (length-delimited `ccp.TreeData` messages) from a file or standard input ('-f -')
+     * to the core service on behalf of an endpoint.
+     */
+    private Dto performPush(CommandLine line) throws ParseException, IOException {
+        CoreServiceClient client = makeClient(line);
+        String project = getProject(line);
+        if (!line.hasOption(endpointOption) || !line.hasOption(fileOption)) {
+            throw new ParseException("Missing required option! Please specify '-e <endpoint>' and '-f <file>' (or '-f -' for standard input) to push data.");
+        }
+        String endpoint = line.getParsedOptionValue(endpointOption);
+        Optional<Integer> maybeEndpoint = client.getEndpointId(project, endpoint);
+        if (maybeEndpoint.isEmpty()) {
+            throw new IllegalArgumentException("Cannot find endpoint with name '" + endpoint + "' in project '" + project + "'.");
+        }
+        String source = line.getOptionValue(fileOption);
+        try (InputStream in = source.equals("-") ?
+                new BufferedInputStream(System.in, 1 << 16) :
+                new BufferedInputStream(Files.newInputStream(Path.of(source)), 1 << 16)) {
+            return client.pushData(maybeEndpoint.get(), in);
+        }
+    }
+
     /**
      * Lists registered elements.
      */
@@ -689,7 +1094,7 @@ public class Runner {
         if (line.hasOption(allOption)) {
             project = null;
         }
-        return client.listAll(project);
+        return client.listAll(project, line.getOptionValue(nameOption));
     }
 
 }
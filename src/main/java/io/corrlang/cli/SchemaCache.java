@@ -0,0 +1,139 @@
+package io.corrlang.cli;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import io.corrlang.protocol.Ccp;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Local cache of endpoint schemas (serialized `ccp.Schema` messages) in `CORRLANG_HOME/cache/schemas`.
+ * <p>
+ * Entries are keyed by endpoint id and content fingerprint (hex-encoded SHA-256 of the serialized schema),
+ * i.e. an entry is valid as long as the core service reports the same fingerprint for the endpoint.
+ * Entries are read via memory-mapping and the total size of the cache is bounded,
+ * the least recently used entries are evicted first.
+ */
+class SchemaCache {
+
+    private static final String SUFFIX = ".schema";
+
+    private final Path directory;
+
+    private final long maxSize;
+
+    SchemaCache(Path directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the cached schema of the endpoint if it has the given fingerprint.
+     */
+    Optional<Ccp.Schema> load(int endpointId, String fingerprint) {
+        Path file = entry(endpointId, fingerprint);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            // the mapping stays valid after closing the channel, parsed byte strings may alias it
+            CodedInputStream input = CodedInputStream.newInstance(buffer);
+            input.enableAliasing(true);
+            input.setSizeLimit(Integer.MAX_VALUE);
+            Ccp.Schema schema = Ccp.Schema.parseFrom(input);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return Optional.of(schema);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            // a corrupt entry is simply fetched again
+            deleteQuietly(file);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the serialized schema of an endpoint, provided that it matches the given fingerprint.
+     * Entries of older versions of the endpoint's schema are dropped.
+     */
+    void store(int endpointId, String fingerprint, ByteString serializedSchema) throws IOException {
+        if (serializedSchema.size() > maxSize || !fingerprint.equals(ContentHashes.of(serializedSchema))) {
+            return;
+        }
+        Files.createDirectories(directory);
+        for (Path outdated : entries(endpointId + "-*" + SUFFIX)) {
+            deleteQuietly(outdated);
+        }
+        Path file = entry(endpointId, fingerprint);
+        Path tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            serializedSchema.writeTo(out);
+        } catch (IOException e) {
+            deleteQuietly(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        evict();
+    }
+
+    /**
+     * Drops the least recently used entries until the cache fits into its size limit.
+     */
+    private void evict() throws IOException {
+        record Entry(Path file, long size, FileTime lastUsed) {}
+        List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        for (Path file : entries("*" + SUFFIX)) {
+            try {
+                Entry entry = new Entry(file, Files.size(file), Files.getLastModifiedTime(file));
+                entries.add(entry);
+                total += entry.size;
+            } catch (NoSuchFileException ignored) {
+                // evicted concurrently
+            }
+        }
+        entries.sort(Comparator.comparing(Entry::lastUsed));
+        for (Entry entry : entries) {
+            if (total <= maxSize) {
+                break;
+            }
+            deleteQuietly(entry.file);
+            total -= entry.size;
+        }
+    }
+
+    private List<Path> entries(String glob) throws IOException {
+        List<Path> result = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return result;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            stream.forEach(result::add);
+        }
+        return result;
+    }
+
+    private Path entry(int endpointId, String fingerprint) {
+        return directory.resolve(endpointId + "-" + fingerprint + SUFFIX);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // e.g. still mapped on Windows, the next eviction will try again
+        }
+    }
+}
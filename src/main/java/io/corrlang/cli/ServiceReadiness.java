@@ -0,0 +1,82 @@
+package io.corrlang.cli;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits for a freshly started core service to publish its port without polling:
+ * the installation directory is watched for the PORT file and the wait ends early if the process dies.
+ */
+final class ServiceReadiness {
+
+    private ServiceReadiness() {
+    }
+
+    /**
+     * Blocks until the PORT file contains a port number and returns it.
+     *
+     * @param process the started core service process, if known
+     */
+    static int awaitPortFile(Path portFile, Duration timeout, @Nullable Process process) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Path dir = portFile.toAbsolutePath().getParent();
+        try (WatchService watchService = dir.getFileSystem().newWatchService()) {
+            // registered before the first check, i.e. no event can be missed
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            if (process != null) {
+                process.onExit().thenRun(() -> closeQuietly(watchService));
+            }
+            while (true) {
+                OptionalInt port = readPort(portFile);
+                if (port.isPresent()) {
+                    return port.getAsInt();
+                }
+                if (process != null && !process.isAlive()) {
+                    throw new IllegalStateException("The CorrLang core service process terminated during startup (exit code " + process.exitValue() + ")!");
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("The CorrLang core service did not start within " + timeout.toSeconds() + "s!");
+                }
+                try {
+                    WatchKey key = watchService.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (key != null) {
+                        key.pollEvents();
+                        key.reset();
+                    }
+                } catch (ClosedWatchServiceException e) {
+                    // the process has terminated, reported by the next iteration
+                }
+            }
+        }
+    }
+
+    /**
+     * The port in the PORT file, if the file exists and has been written completely.
+     */
+    private static OptionalInt readPort(Path portFile) throws IOException {
+        try {
+            String content = Files.readString(portFile).trim();
+            return content.isEmpty() ? OptionalInt.empty() : OptionalInt.of(Integer.parseInt(content));
+        } catch (NoSuchFileException | NumberFormatException e) {
+            return OptionalInt.empty();
+        }
+    }
+
+    private static void closeQuietly(WatchService watchService) {
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package io.corrlang.cli;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the core service running: a process that terminates with a non-zero exit code is started again,
+ * with exponentially growing delays while it keeps crashing. A regular shutdown (exit code 0, e.g. by `corrl down`)
+ * or another process recorded as the service (by `corrl upgrade`) ends the supervision,
+ * and stopping the supervisor (Ctrl+C) stops the service as well.
+ */
+class ServiceSupervisor {
+
+    /**
+     * Starts the core service and waits until it is ready.
+     */
+    interface Starter {
+        Process start() throws Exception;
+    }
+
+    /**
+     * A service that has been running for this long is considered stable again, i.e. the backoff is reset.
+     */
+    private static final Duration STABLE_AFTER = Duration.ofMinutes(1);
+
+    private final Path corrlangHome;
+
+    private final Starter starter;
+
+    private final Duration initialBackoff;
+
+    private final Duration maxBackoff;
+
+    private volatile Process current;
+
+    ServiceSupervisor(Path corrlangHome, Starter starter, Duration initialBackoff, Duration maxBackoff) {
+        this.corrlangHome = corrlangHome;
+        this.starter = starter;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Supervises the given, already started, service process until it is shut down regularly.
+     */
+    public void supervise(Process process) throws InterruptedException {
+        current = process;
+        Thread stopService = new Thread(this::stopService, "corrl-supervisor-shutdown");
+        Runtime.getRuntime().addShutdownHook(stopService);
+        Duration backoff = initialBackoff;
+        Instant started = Instant.now();
+        System.out.println("Supervising CorrLang core service (pid " + process.pid() + "), press Ctrl+C to stop...");
+        while (true) {
+            int exitCode = current.waitFor();
+            if (exitCode == 0) {
+                System.out.println(Instant.now() + " CorrLang core service has been shut down, stopping supervision.");
+                Runtime.getRuntime().removeShutdownHook(stopService);
+                return;
+            }
+            long pid = current.pid();
+            if (ProcessStarter.runningProcess(corrlangHome).filter(recorded -> recorded.pid() != pid).isPresent()) {
+                // e.g. replaced by 'corrl upgrade', which stops the former service
+                System.out.println(Instant.now() + " CorrLang core service has been replaced by another process, stopping supervision.");
+                Runtime.getRuntime().removeShutdownHook(stopService);
+                return;
+            }
+            if (Duration.between(started, Instant.now()).compareTo(STABLE_AFTER) >= 0) {
+                backoff = initialBackoff;
+            }
+            System.out.println(Instant.now() + " CorrLang core service terminated with exit code " + exitCode +
+                    ", restarting in " + backoff.toMillis() + "ms...");
+            while (true) {
+                Thread.sleep(backoff.toMillis());
+                backoff = nextBackoff(backoff);
+                try {
+                    ProcessStarter.cleanUpStaleFiles(corrlangHome);
+                    current = starter.start();
+                    started = Instant.now();
+                    System.out.println(Instant.now() + " Restarted CorrLang core service (pid " + current.pid() + ").");
+                    break;
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    System.out.println(Instant.now() + " Restarting CorrLang core service failed: " + e.getMessage() +
+                            ", retrying in " + backoff.toMillis() + "ms...");
+                }
+            }
+        }
+    }
+
+    private Duration nextBackoff(Duration backoff) {
+        Duration next = backoff.multipliedBy(2);
+        return next.compareTo(maxBackoff) > 0 ? maxBackoff : next;
+    }
+
+    private void stopService() {
+        Process process = current;
+        if (process != null && process.isAlive()) {
+            // graceful termination (SIGTERM), forced if it takes too long
+            process.destroy();
+            try {
+                if (process.waitFor(10, TimeUnit.SECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException ignored) {
+            }
+            process.destroyForcibly();
+        }
+    }
+}
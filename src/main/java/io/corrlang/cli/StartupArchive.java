@@ -0,0 +1,132 @@
+package io.corrlang.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Class-data-sharing archives that speed up the startup of the core service.
+ * <p>
+ * An archive is written by a training run of the core service and is afterwards passed to every launch.
+ * On JDK 25 and newer the JVM writes an AOT cache (which also contains linked classes and method profiles),
+ * on older JVMs a dynamic AppCDS archive. Archives are stored in `CORRLANG_HOME/cds` and are named after the
+ * installed CorrLang version, i.e. a new version is launched without an archive until it has been trained.
+ */
+final class StartupArchive {
+
+    static final String DIRECTORY = "cds";
+
+    private static final String AOT_EXTENSION = ".aot";
+    private static final String CDS_EXTENSION = ".jsa";
+
+    /**
+     * The first JDK supporting AOT caches that are written in a single training run (JEP 514).
+     */
+    private static final int MIN_AOT_CACHE_JDK = 25;
+
+    private static final Pattern JAVA_VERSION = Pattern.compile("version \"(\\d+)(?:\\.(\\d+))?");
+
+    private StartupArchive() {
+    }
+
+    /**
+     * The JVM options for launching the core service with the archive of the installed version, if there is one.
+     */
+    static List<String> launchOptions(Path corrlangHome) {
+        return installedVersion(corrlangHome)
+                .map(version -> launchOptions(corrlangHome, version))
+                .orElse(List.of());
+    }
+
+    /**
+     * The JVM options for launching the given version of the core service with its archive, if there is one.
+     */
+    static List<String> launchOptions(Path corrlangHome, String version) {
+        Path aotCache = archive(corrlangHome, version, AOT_EXTENSION);
+        if (Files.isRegularFile(aotCache)) {
+            return List.of("-XX:AOTCache=" + aotCache.toAbsolutePath());
+        }
+        Path cdsArchive = archive(corrlangHome, version, CDS_EXTENSION);
+        if (Files.isRegularFile(cdsArchive)) {
+            return List.of("-XX:SharedArchiveFile=" + cdsArchive.toAbsolutePath());
+        }
+        return List.of();
+    }
+
+    /**
+     * The JVM options for a training run, which writes the archive of the installed version when the JVM exits.
+     * Archives of other versions are removed, apart from the ones of versions that are still installed.
+     */
+    static List<String> trainingOptions(Path corrlangHome, String jvm) throws IOException {
+        String version = installedVersion(corrlangHome)
+                .orElseThrow(() -> new IllegalStateException("No CorrLang installation found at '" + corrlangHome.toAbsolutePath() + "'!"));
+        Path dir = corrlangHome.resolve(DIRECTORY);
+        Files.createDirectories(dir);
+        List<String> installed = Installation.installedVersions(corrlangHome);
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                // an archive of a version that is still installed is kept, unless it is the one being trained
+                boolean keep = installed.stream()
+                        .filter(v -> !v.equals(version))
+                        .anyMatch(v -> file.getFileName().toString().startsWith("corrlang-service-" + v + "."));
+                if (!keep) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        if (javaFeatureVersion(jvm) >= MIN_AOT_CACHE_JDK) {
+            return List.of("-XX:AOTCacheOutput=" + archive(corrlangHome, version, AOT_EXTENSION).toAbsolutePath());
+        }
+        return List.of("-XX:ArchiveClassesAtExit=" + archive(corrlangHome, version, CDS_EXTENSION).toAbsolutePath());
+    }
+
+    /**
+     * The archive written by the last training run, if any.
+     */
+    static Optional<Path> current(Path corrlangHome) {
+        Optional<String> version = installedVersion(corrlangHome);
+        if (version.isEmpty()) {
+            return Optional.empty();
+        }
+        return Stream.of(AOT_EXTENSION, CDS_EXTENSION)
+                .map(extension -> archive(corrlangHome, version.get(), extension))
+                .filter(Files::isRegularFile)
+                .findFirst();
+    }
+
+    private static Path archive(Path corrlangHome, String version, String extension) {
+        return corrlangHome.resolve(DIRECTORY).resolve("corrlang-service-" + version + extension);
+    }
+
+    private static Optional<String> installedVersion(Path corrlangHome) {
+        try {
+            return Installer.getInstalledVersion(corrlangHome);
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The feature version of the given java executable as reported by `java -version` (e.g. 8 for "1.8.0").
+     */
+    static int javaFeatureVersion(String jvm) throws IOException {
+        Process process = new ProcessBuilder(jvm, "-version").redirectErrorStream(true).start();
+        String output;
+        try (InputStream in = process.getInputStream()) {
+            output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Matcher matcher = JAVA_VERSION.matcher(output);
+        if (!matcher.find()) {
+            throw new IOException("Could not determine the version of '" + jvm + "': " + output);
+        }
+        int major = Integer.parseInt(matcher.group(1));
+        return major == 1 && matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) : major;
+    }
+}
@@ -0,0 +1,159 @@
+package io.corrlang.cli;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+/**
+ * Deletes directory trees in the background.
+ * <p>
+ * The tree is first renamed to a tombstone next to it (`.<name>.deleting-<n>`), so its path can be reused at once,
+ * and then deleted by a fork-join walk, i.e. the directories are processed in parallel, which matters on network
+ * file systems where every single deletion is a round trip. Failures are collected instead of aborting the walk.
+ * Symbolic links are deleted, never followed.
+ */
+final class TreeDeleter {
+
+    private static final String TOMBSTONE_MARKER = ".deleting-";
+
+    /**
+     * Deletion is I/O bound, hence more threads than cores.
+     */
+    private static final ForkJoinPool POOL = new ForkJoinPool(Math.max(8, 2 * Runtime.getRuntime().availableProcessors()));
+
+    private TreeDeleter() {
+    }
+
+    /**
+     * Moves the given file or directory out of the way and deletes it in the background.
+     * The returned future completes with the failures, i.e. with an empty list if everything has been deleted.
+     * <p>
+     * The path is free when this method returns: if it cannot be renamed (e.g. files in use on Windows),
+     * it is deleted in place before returning.
+     */
+    static CompletableFuture<List<IOException>> deleteAsync(Path path) {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Path tombstone = parent.resolve("." + path.getFileName() + TOMBSTONE_MARKER + System.nanoTime());
+            try {
+                Files.move(path, tombstone, StandardCopyOption.ATOMIC_MOVE);
+                return walk(tombstone);
+            } catch (IOException e) {
+                // delete in place
+            }
+        }
+        Queue<IOException> failures = new ConcurrentLinkedQueue<>();
+        POOL.invoke(new DeleteTask(path, failures));
+        return CompletableFuture.completedFuture(List.copyOf(failures));
+    }
+
+    /**
+     * Deletes the given file or directory and waits for it.
+     *
+     * @throws IOException the first failure (with the others suppressed) if not everything could be deleted
+     */
+    static void delete(Path path) throws IOException {
+        List<IOException> failures;
+        try {
+            failures = deleteAsync(path).join();
+        } catch (CompletionException e) {
+            throw new IOException("Failed to delete '" + path.toAbsolutePath() + "'", e.getCause());
+        }
+        if (!failures.isEmpty()) {
+            IOException first = failures.get(0);
+            failures.subList(1, failures.size()).forEach(first::addSuppressed);
+            throw first;
+        }
+    }
+
+    /**
+     * Deletes the tombstones left in the given directory by deletions that have been interrupted
+     * (e.g. because the JVM exited before they had finished).
+     */
+    static CompletableFuture<List<IOException>> deleteTombstones(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        List<CompletableFuture<List<IOException>>> deletions = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(".") && name.contains(TOMBSTONE_MARKER)) {
+                    deletions.add(walk(file));
+                }
+            }
+        }
+        return CompletableFuture.allOf(deletions.toArray(CompletableFuture[]::new))
+                .thenApply(v -> deletions.stream().flatMap(d -> d.join().stream()).toList());
+    }
+
+    private static CompletableFuture<List<IOException>> walk(Path root) {
+        Queue<IOException> failures = new ConcurrentLinkedQueue<>();
+        return CompletableFuture.supplyAsync(() -> {
+            POOL.invoke(new DeleteTask(root, failures));
+            return List.copyOf(failures);
+        }, POOL);
+    }
+
+    private static final class DeleteTask extends RecursiveAction {
+
+        private final Path path;
+
+        private final Queue<IOException> failures;
+
+        DeleteTask(Path path, Queue<IOException> failures) {
+            this.path = path;
+            this.failures = failures;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (attributes.isDirectory()) {
+                    List<DeleteTask> subdirectories = new ArrayList<>();
+                    try (DirectoryStream<Path> children = Files.newDirectoryStream(path)) {
+                        for (Path child : children) {
+                            if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                                subdirectories.add(new DeleteTask(child, failures));
+                            } else {
+                                delete(child);
+                            }
+                        }
+                    }
+                    invokeAll(subdirectories);
+                }
+                delete(path);
+            } catch (NoSuchFileException e) {
+                // already gone
+            } catch (IOException e) {
+                failures.add(e);
+            }
+        }
+
+        private void delete(Path file) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                failures.add(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package io.corrlang.cli;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+import com.google.protobuf.UnsafeByteOperations;
+import io.grpc.Detachable;
+import io.grpc.HasByteBuffer;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.protobuf.ProtoUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response marshaller for RPCs with large payloads (schemas, binary chunks).
+ * <p>
+ * If aliasing is enabled and the transport exposes its (direct) receive buffers, the message is parsed
+ * straight from these buffers and its `bytes` and `string` fields alias them instead of being copied onto the heap.
+ * The buffers are detached from the transport for that purpose, hence every parsed message must be handed back
+ * via {@link #release(Message)} as soon as it is not needed anymore and must not be accessed afterward.
+ * Otherwise, it behaves like the default protobuf marshaller.
+ */
+class ZeroCopyMarshaller<T extends Message> implements MethodDescriptor.Marshaller<T> {
+
+    private final MethodDescriptor.Marshaller<T> delegate;
+
+    private final Parser<T> parser;
+
+    private final boolean aliasing;
+
+    private final Map<T, InputStream> retained = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    @SuppressWarnings("unchecked")
+    ZeroCopyMarshaller(T defaultInstance, boolean aliasing) {
+        this.delegate = ProtoUtils.marshaller(defaultInstance);
+        this.parser = (Parser<T>) defaultInstance.getParserForType();
+        this.aliasing = aliasing;
+    }
+
+    @Override
+    public InputStream stream(T value) {
+        return delegate.stream(value);
+    }
+
+    @Override
+    public T parse(InputStream stream) {
+        if (!aliasing ||
+                !(stream instanceof KnownLength) ||
+                !(stream instanceof Detachable detachable) ||
+                !(stream instanceof HasByteBuffer hasByteBuffer) ||
+                !hasByteBuffer.byteBufferSupported()) {
+            return delegate.parse(stream);
+        }
+        InputStream detached = detachable.detach();
+        try {
+            List<ByteString> segments = new ArrayList<>();
+            while (detached.available() > 0) {
+                ByteBuffer buffer = ((HasByteBuffer) detached).getByteBuffer();
+                if (buffer == null) {
+                    // the remainder is not backed by a buffer
+                    segments.add(ByteString.readFrom(detached));
+                    break;
+                }
+                int length = buffer.remaining();
+                segments.add(UnsafeByteOperations.unsafeWrap(buffer));
+                detached.skipNBytes(length);
+            }
+            // concatenating the segments does not copy them
+            CodedInputStream input = ByteString.copyFrom(segments).newCodedInput();
+            input.enableAliasing(true);
+            input.setSizeLimit(Integer.MAX_VALUE);
+            T message = parser.parseFrom(input);
+            retained.put(message, detached);
+            return message;
+        } catch (IOException e) {
+            closeQuietly(detached);
+            throw Status.INTERNAL.withDescription("Invalid protobuf byte sequence").withCause(e).asRuntimeException();
+        }
+    }
+
+    /**
+     * Gives the transport buffers that back the given message back.
+     */
+    void release(T message) {
+        InputStream detached = retained.remove(message);
+        if (detached != null) {
+            closeQuietly(detached);
+        }
+    }
+
+    private static void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
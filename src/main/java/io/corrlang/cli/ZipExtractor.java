@@ -0,0 +1,95 @@
+package io.corrlang.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Extracts distribution archives. The entries are inflated in parallel (one task per entry, on as many threads
+ * as there are cores) straight into the given directory; callers extract into a staging directory
+ * (see {@link Installer}), so an interrupted extraction never leaves a half-written installation behind.
+ */
+final class ZipExtractor {
+
+    /**
+     * The distribution archives contain everything within this directory, which is not extracted itself.
+     */
+    static final String DISTRIBUTION_ROOT = "corrlang/";
+
+    private ZipExtractor() {
+    }
+
+    /**
+     * Extracts the archive into the given (usually empty) directory, existing files are overwritten.
+     */
+    static void extract(Path zip, Path destination) throws IOException, InterruptedException {
+        Path destDir = destination.toAbsolutePath().normalize();
+        Files.createDirectories(destDir);
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            List<ZipEntry> files = new ArrayList<>();
+            for (ZipEntry entry : zipFile.stream().toList()) {
+                Path target = target(destDir, entry);
+                if (target == null) {
+                    continue;
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(target);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    files.add(entry);
+                }
+            }
+            // the largest entries first, such that no thread is left with a large entry at the end
+            files.sort(Comparator.comparingLong(ZipEntry::getSize).reversed());
+            try (ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (ZipEntry entry : files) {
+                    futures.add(executor.submit(() -> {
+                        try (InputStream in = zipFile.getInputStream(entry)) {
+                            Files.copy(in, target(destDir, entry), StandardCopyOption.REPLACE_EXISTING);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                throw new IOException("Failed to extract '" + zip + "'", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * The location of the entry within the destination directory, null for the distribution root itself.
+     */
+    private static Path target(Path destDir, ZipEntry entry) throws IOException {
+        String name = entry.getName();
+        if (name.startsWith(DISTRIBUTION_ROOT)) {
+            name = name.substring(DISTRIBUTION_ROOT.length());
+        }
+        if (name.isEmpty()) {
+            return null;
+        }
+        Path target = destDir.resolve(name.replace('/', File.separatorChar)).normalize();
+        if (!target.startsWith(destDir)) {
+            throw new IOException("Archive entry '" + entry.getName() + "' points outside of the target directory!");
+        }
+        return target;
+    }
+}
@@ -0,0 +1,193 @@
+package io.corrlang.cli;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Downloads a file from a local HTTP server that stands in for the release server.
+ */
+public class ArchiveDownloaderTest extends TempDirTest {
+
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+
+    private final byte[] content = new byte[5 * 1024 * 1024 + 123];
+
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+
+    private final AtomicBoolean supportRanges = new AtomicBoolean(true);
+
+    private final AtomicBoolean breakFirstSegment = new AtomicBoolean(false);
+
+    private final AtomicBoolean changeAfterProbe = new AtomicBoolean(false);
+
+    private final AtomicReference<String> etag = new AtomicReference<>("\"v1\"");
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private HttpServer server;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        new Random(42).nextBytes(content);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/1.0/corrlang.zip", this::serve);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        if (etag.get() != null) {
+            exchange.getResponseHeaders().add("ETag", etag.get());
+        }
+        try (OutputStream out = exchange.getResponseBody()) {
+            Matcher matcher = range != null ? RANGE.matcher(range) : null;
+            boolean changed = ifRange != null && !ifRange.equals(etag.get());
+            if (!supportRanges.get() || matcher == null || !matcher.matches() || changed) {
+                exchange.sendResponseHeaders(200, content.length);
+                out.write(content);
+                return;
+            }
+            ranges.add(range);
+            int start = Integer.parseInt(matcher.group(1));
+            int end = Math.min(Integer.parseInt(matcher.group(2)), content.length - 1);
+            int length = end - start + 1;
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+            exchange.sendResponseHeaders(206, length);
+            if (start == 0 && length > 1 && breakFirstSegment.getAndSet(false)) {
+                // the connection breaks after half of the segment
+                out.write(content, start, length / 2);
+                out.flush();
+                exchange.close();
+                return;
+            }
+            out.write(content, start, length);
+            if (changeAfterProbe.get()) {
+                etag.set("\"v2\"");
+            }
+        }
+    }
+
+    private URI uri() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/1.0/corrlang.zip");
+    }
+
+    @Test
+    public void testParallelSegments() throws Exception {
+        Path target = tempDir.resolve("corrlang.zip");
+        new ArchiveDownloader(4).download(uri(), target);
+        Assertions.assertArrayEquals(content, Files.readAllBytes(target));
+        // probe and one request per segment
+        Assertions.assertEquals(5, ranges.size());
+        // no part files left, the parts file is kept (empty) as the lock
+        Assertions.assertEquals(List.of("corrlang.zip", "corrlang.zip.parts"), names());
+        Assertions.assertEquals(0, Files.size(tempDir.resolve("corrlang.zip.parts")));
+    }
+
+    @Test
+    public void testPartsWithoutValidatorAreNotResumed() throws Exception {
+        etag.set(null);
+        Path target = tempDir.resolve("corrlang.zip");
+        // left by an interrupted download of another version of the file with the same length
+        Files.writeString(tempDir.resolve("corrlang.zip.parts"), content.length + "\n");
+        Files.write(tempDir.resolve("corrlang.zip.part0"), new byte[1000]);
+
+        new ArchiveDownloader(4).download(uri(), target);
+
+        Assertions.assertArrayEquals(content, Files.readAllBytes(target));
+        int segmentSize = (content.length + 3) / 4;
+        Assertions.assertTrue(ranges.contains("bytes=0-" + (segmentSize - 1)), ranges.toString());
+    }
+
+    @Test
+    public void testResumeBrokenSegment() throws Exception {
+        breakFirstSegment.set(true);
+        Path target = tempDir.resolve("corrlang.zip");
+        new ArchiveDownloader(4).download(uri(), target);
+        Assertions.assertArrayEquals(content, Files.readAllBytes(target));
+        // the first segment is requested again, starting after the received half
+        int segmentSize = (content.length + 3) / 4;
+        Assertions.assertTrue(ranges.contains("bytes=" + segmentSize / 2 + "-" + (segmentSize - 1)), ranges.toString());
+    }
+
+    @Test
+    public void testRemoteChangeIsNotRetried() throws Exception {
+        changeAfterProbe.set(true);
+        Path target = tempDir.resolve("corrlang.zip");
+        IOException e = Assertions.assertThrows(IOException.class, () -> new ArchiveDownloader(4).download(uri(), target));
+        Assertions.assertTrue(e.getMessage().contains("has changed"), e.getMessage());
+        // probe and a single request per segment
+        Assertions.assertTrue(requests.get() <= 5, requests.toString());
+        Assertions.assertFalse(Files.exists(target));
+    }
+
+    @Test
+    public void testWithoutRangeSupport() throws Exception {
+        supportRanges.set(false);
+        Path target = tempDir.resolve("corrlang.zip");
+        new ArchiveDownloader(4).download(uri(), target);
+        Assertions.assertArrayEquals(content, Files.readAllBytes(target));
+    }
+
+    @Test
+    public void testCache() throws Exception {
+        ArchiveCache cache = new ArchiveCache(tempDir.resolve("cache"));
+        Assertions.assertEquals(Optional.empty(), cache.lookup(uri()));
+        Path downloaded = cache.downloadDirectory().resolve("corrlang.zip");
+        new ArchiveDownloader(4).download(uri(), downloaded);
+        Path cached = cache.store(uri(), downloaded);
+        Assertions.assertEquals(Optional.of(cached), cache.lookup(uri()));
+        Assertions.assertArrayEquals(content, Files.readAllBytes(cached));
+
+        // verified again after being modified, but still intact
+        Files.setLastModifiedTime(cached, FileTime.fromMillis(Files.getLastModifiedTime(cached).toMillis() - 60_000));
+        Assertions.assertEquals(Optional.of(cached), cache.lookup(uri()));
+
+        // a corrupted archive is not used anymore
+        Files.write(cached, new byte[]{1, 2, 3});
+        Assertions.assertEquals(Optional.empty(), cache.lookup(uri()));
+    }
+
+    @Test
+    public void testCacheSkipsHashingOfUnmodifiedArchives() throws Exception {
+        ArchiveCache cache = new ArchiveCache(tempDir.resolve("cache"));
+        Path downloaded = cache.downloadDirectory().resolve("corrlang.zip");
+        Files.write(downloaded, content);
+        Path cached = cache.store(uri(), downloaded);
+
+        // same size and modification time, hence trusted without reading the content
+        FileTime modified = Files.getLastModifiedTime(cached);
+        byte[] changed = content.clone();
+        changed[0]++;
+        Files.write(cached, changed);
+        Files.setLastModifiedTime(cached, modified);
+        Assertions.assertEquals(Optional.of(cached), cache.lookup(uri()));
+    }
+}
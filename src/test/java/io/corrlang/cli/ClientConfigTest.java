@@ -0,0 +1,121 @@
+package io.corrlang.cli;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Deadlines, retry and hedging policies of the gRPC service config built from the `[client]` section.
+ */
+public class ClientConfigTest {
+
+    private static ClientConfig config(String... lines) {
+        List<String> content = new ArrayList<>();
+        content.add("[" + ClientConfig.SECTION + "]");
+        content.addAll(List.of(lines));
+        return ClientConfig.from(ConfigFile.parse(content));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> methodConfigs(ClientConfig config) {
+        return (List<Map<String, Object>>) config.toServiceConfig().get("methodConfig");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> methodConfig(ClientConfig config, String method) {
+        for (Map<String, Object> methodConfig : methodConfigs(config)) {
+            for (Map<String, Object> name : (List<Map<String, Object>>) methodConfig.get("name")) {
+                if (method.equals(name.get("method"))) {
+                    return methodConfig;
+                }
+            }
+        }
+        Assertions.fail("No method config for " + method);
+        return null;
+    }
+
+    @Test
+    public void testSchemaFetchesGetTheBulkDeadline() {
+        ClientConfig config = config("readDeadline = \"5s\"", "bulkDeadline = \"10m\"");
+        for (String method : List.of("GetSchema", "GetSchemaChunked")) {
+            Map<String, Object> methodConfig = methodConfig(config, method);
+            Assertions.assertEquals("600.000000000s", methodConfig.get("timeout"), method);
+            Assertions.assertTrue(methodConfig.containsKey("retryPolicy"), method);
+        }
+        Assertions.assertEquals("5.000000000s", methodConfig(config, "GetObjects").get("timeout"));
+    }
+
+    @Test
+    public void testStatusProbeIsNotRetried() {
+        ClientConfig config = config("maxAttempts = 5", "hedging = true");
+        Map<String, Object> probe = methodConfig(config, "GetStatus");
+        Assertions.assertFalse(probe.containsKey("retryPolicy"));
+        Assertions.assertFalse(probe.containsKey("hedgingPolicy"));
+        Assertions.assertEquals(ClientConfig.DEFAULT.readDeadline(), config.readDeadline());
+        Assertions.assertEquals("10.000000000s", probe.get("timeout"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLookupsAreEitherHedgedOrRetried() {
+        Map<String, Object> hedged = methodConfig(config("hedging = true", "hedgingMaxAttempts = 2", "hedgingDelay = \"20ms\""), "GetEndpoint");
+        Assertions.assertFalse(hedged.containsKey("retryPolicy"));
+        Map<String, Object> hedgingPolicy = (Map<String, Object>) hedged.get("hedgingPolicy");
+        Assertions.assertEquals(2.0, hedgingPolicy.get("maxAttempts"));
+        Assertions.assertEquals("0.020000000s", hedgingPolicy.get("hedgingDelay"));
+
+        Map<String, Object> retried = methodConfig(config("maxAttempts = 3"), "GetEndpoint");
+        Assertions.assertFalse(retried.containsKey("hedgingPolicy"));
+        Assertions.assertEquals(3.0, ((Map<String, Object>) retried.get("retryPolicy")).get("maxAttempts"));
+    }
+
+    @Test
+    public void testSingleAttemptOmitsTheRetryPolicy() {
+        // gRPC rejects retry policies with less than two attempts
+        ClientConfig config = config("maxAttempts = 1");
+        for (String method : List.of("GetObjects", "GetSchema", "GetEndpoint")) {
+            Assertions.assertFalse(methodConfig(config, method).containsKey("retryPolicy"), method);
+            Assertions.assertTrue(methodConfig(config, method).containsKey("timeout"), method);
+        }
+        Assertions.assertEquals(1, config.maxRetryAttempts());
+    }
+
+    @Test
+    public void testSingleHedgingAttemptOmitsTheHedgingPolicy() {
+        Map<String, Object> lookups = methodConfig(config("hedging = true", "hedgingMaxAttempts = 1"), "GetEndpoint");
+        Assertions.assertFalse(lookups.containsKey("hedgingPolicy"));
+        // retried like the other reads instead
+        Assertions.assertTrue(lookups.containsKey("retryPolicy"));
+
+        Map<String, Object> neither = methodConfig(config("hedging = true", "hedgingMaxAttempts = 1", "maxAttempts = 1"), "GetEndpoint");
+        Assertions.assertFalse(neither.containsKey("hedgingPolicy"));
+        Assertions.assertFalse(neither.containsKey("retryPolicy"));
+    }
+
+    @Test
+    public void testInvalidPolicyValuesAreRejected() {
+        for (String line : List.of("maxAttempts = 0", "hedgingMaxAttempts = -1", "initialBackoff = \"0ms\"",
+                "maxBackoff = -5", "backoffMultiplier = 0.0", "hedgingDelay = \"0s\"")) {
+            IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class, () -> config(line), line);
+            Assertions.assertTrue(e.getMessage().contains(line.substring(0, line.indexOf(' '))), e.getMessage());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testEachMethodIsConfiguredOnce() {
+        // gRPC rejects service configs that name a method twice
+        Set<Object> names = new HashSet<>();
+        for (Map<String, Object> methodConfig : methodConfigs(ClientConfig.DEFAULT)) {
+            for (Map<String, Object> name : (List<Map<String, Object>>) methodConfig.get("name")) {
+                Assertions.assertTrue(names.add(name), name.toString());
+            }
+        }
+        Assertions.assertFalse(methodConfig(ClientConfig.DEFAULT, "StreamObjects").containsKey("timeout"));
+    }
+}
@@ -0,0 +1,145 @@
+package io.corrlang.cli;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The subset of TOML understood by {@link ConfigFile}.
+ */
+public class ConfigFileTest {
+
+    private static ConfigFile parse(String... lines) {
+        return ConfigFile.parse(List.of(lines));
+    }
+
+    @Test
+    public void testScalars() {
+        ConfigFile config = parse(
+                "top = 1",
+                "[client]",
+                "maxAttempts = 4 # comment",
+                "big = 1_000_000",
+                "factor = 2.5",
+                "hedging = true",
+                "name = \"gzip\"");
+        Assertions.assertEquals(1, config.getLong("", "top", 0));
+        Assertions.assertEquals(4, config.getInt("client", "maxAttempts", 0));
+        Assertions.assertEquals(1_000_000, config.getLong("client", "big", 0));
+        Assertions.assertEquals(2.5, config.getDouble("client", "factor", 0));
+        Assertions.assertTrue(config.getBoolean("client", "hedging", false));
+        Assertions.assertEquals("gzip", config.getString("client", "name", null));
+        // defaults for missing keys, tables and mismatching types
+        Assertions.assertEquals(7, config.getInt("client", "missing", 7));
+        Assertions.assertEquals(7, config.getInt("missing", "maxAttempts", 7));
+        Assertions.assertEquals(7, config.getInt("client", "name", 7));
+        Assertions.assertFalse(config.getBoolean("client", "maxAttempts", false));
+    }
+
+    @Test
+    public void testQuoting() {
+        ConfigFile config = parse(
+                "basic = \"a \\\"quoted\\\" # no comment\"",
+                "escapes = \"tab\\there\\\\\"",
+                "literal = 'C:\\dir # no comment'",
+                "\"quoted key\" = 1",
+                "empty = \"\"");
+        Assertions.assertEquals("a \"quoted\" # no comment", config.getString("", "basic", null));
+        Assertions.assertEquals("tab\there\\", config.getString("", "escapes", null));
+        Assertions.assertEquals("C:\\dir # no comment", config.getString("", "literal", null));
+        Assertions.assertEquals(1, config.getLong("", "quoted key", 0));
+        Assertions.assertEquals("", config.getString("", "empty", null));
+    }
+
+    @Test
+    public void testArrays() {
+        ConfigFile config = parse(
+                "options = [\"-Xss1m\", \"-Dlist=a,b\", 'x\"y']",
+                "numbers = [1, 2, 3]",
+                "empty = []",
+                "single = \"-ea\"");
+        Assertions.assertEquals(List.of("-Xss1m", "-Dlist=a,b", "x\"y"), config.getStringList("", "options"));
+        Assertions.assertEquals(List.of(1L, 2L, 3L), config.table("").get("numbers"));
+        Assertions.assertEquals(List.of(), config.getStringList("", "empty"));
+        Assertions.assertEquals(List.of("-ea"), config.getStringList("", "single"));
+        Assertions.assertEquals(List.of(), config.getStringList("", "missing"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> parse("options = [\"a\",", "\"b\"]"));
+    }
+
+    @Test
+    public void testDottedTables() {
+        ConfigFile config = parse(
+                "[jvm]",
+                "profile = \"small\"",
+                "[jvm.profiles.container]",
+                "gc = \"G1\"",
+                "[ jvm.\"profiles\".'my-profile' ]",
+                "gcLog = true");
+        Assertions.assertTrue(config.tableNames().containsAll(List.of("jvm", "jvm.profiles.container", "jvm.profiles.my-profile")));
+        Assertions.assertEquals("small", config.getString("jvm", "profile", null));
+        Assertions.assertEquals("G1", config.getString("jvm.profiles.container", "gc", null));
+        Assertions.assertTrue(config.has("jvm.profiles.my-profile", "gcLog"));
+        Assertions.assertFalse(config.has("jvm", "gc"));
+    }
+
+    @Test
+    public void testMalformedLines() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> parse("[client"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> parse("just a line"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> parse("value = yes"));
+    }
+
+    @Test
+    public void testDurations() {
+        ConfigFile config = parse(
+                "[client]",
+                "millis = \"250ms\"",
+                "seconds = \"1.5s\"",
+                "minutes = \"2m\"",
+                "hours = \"1h\"",
+                "plain = 300",
+                "invalid = \"soon\"");
+        Assertions.assertEquals(Duration.ofMillis(250), config.getDuration("client", "millis", null));
+        Assertions.assertEquals(Duration.ofMillis(1500), config.getDuration("client", "seconds", null));
+        Assertions.assertEquals(Duration.ofMinutes(2), config.getDuration("client", "minutes", null));
+        Assertions.assertEquals(Duration.ofHours(1), config.getDuration("client", "hours", null));
+        Assertions.assertEquals(Duration.ofMillis(300), config.getDuration("client", "plain", null));
+        Assertions.assertEquals(Duration.ofSeconds(5), config.getDuration("client", "missing", Duration.ofSeconds(5)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> config.getDuration("client", "invalid", null));
+    }
+
+    @Test
+    public void testSizes() {
+        ConfigFile config = parse(
+                "[client]",
+                "bytes = \"10B\"",
+                "kilo = \"1KB\"",
+                "mega = \"64mb\"",
+                "giga = \"2GB\"",
+                "plain = 1024",
+                "huge = \"99999999999GB\"",
+                "invalid = \"lots\"");
+        Assertions.assertEquals(10, config.getSize("client", "bytes", 0));
+        Assertions.assertEquals(1024, config.getSize("client", "kilo", 0));
+        Assertions.assertEquals(64L * 1024 * 1024, config.getSize("client", "mega", 0));
+        Assertions.assertEquals(2L * 1024 * 1024 * 1024, config.getSize("client", "giga", 0));
+        Assertions.assertEquals(1024, config.getSize("client", "plain", 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> config.getSize("client", "huge", 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> config.getSize("client", "invalid", 0));
+    }
+
+    @Test
+    public void testNarrowingIsRangeChecked() {
+        ConfigFile config = parse(
+                "[client]",
+                "maxAttempts = 4294967297",
+                "chunkSize = \"2GB\"",
+                "maxInboundMessageSize = \"1GB\"");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> config.getInt("client", "maxAttempts", 4));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> config.getIntSize("client", "chunkSize", 0));
+        Assertions.assertEquals(1024 * 1024 * 1024, config.getIntSize("client", "maxInboundMessageSize", 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ClientConfig.from(config));
+    }
+}
@@ -0,0 +1,144 @@
+package io.corrlang.cli;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Installs a release from a local release directory next to an already installed version.
+ */
+public class DeltaUpdateTest extends TempDirTest {
+
+    @Test
+    public void testOnlyChangedFilesAreDownloaded() throws Exception {
+        Path home = tempDir.resolve("home");
+        Path installed = Installation.versionDir(home, "1.0");
+        write(installed.resolve("lib/a.jar"), "unchanged");
+        write(installed.resolve("lib/b.jar"), "removed");
+
+        Path releases = tempDir.resolve("releases");
+        Path files = releases.resolve("2.0").resolve(ReleaseManifest.FILES_DIR);
+        write(files.resolve("lib/a.jar"), "unchanged");
+        write(files.resolve("lib/c.jar"), "added");
+        Files.writeString(releases.resolve("2.0").resolve(ReleaseManifest.FILE_NAME),
+                manifestLine(files, "lib/a.jar") + manifestLine(files, "lib/c.jar"));
+
+        List<String> requested = new CopyOnWriteArrayList<>();
+        ReleaseRepository directory = ReleaseRepository.forBase(releases.toUri());
+        ReleaseRepository repository = (version, file) -> {
+            requested.add(file);
+            return directory.open(version, file);
+        };
+
+        Path target = home.resolve("versions/.staging-2.0");
+        Optional<DeltaUpdate.Result> result = new DeltaUpdate(repository, home).install("2.0", target);
+
+        Assertions.assertTrue(result.isPresent());
+        Assertions.assertEquals(1, result.get().linked());
+        Assertions.assertEquals(1, result.get().downloaded());
+        Assertions.assertEquals(List.of(ReleaseManifest.FILE_NAME, "files/lib/c.jar"), requested);
+        Assertions.assertEquals("unchanged", Files.readString(target.resolve("lib/a.jar")));
+        Assertions.assertEquals("added", Files.readString(target.resolve("lib/c.jar")));
+        Assertions.assertFalse(Files.exists(target.resolve("lib/b.jar")));
+    }
+
+    @Test
+    public void testDownloadedScriptsAreExecutable() throws Exception {
+        Path releases = tempDir.resolve("releases");
+        Path files = releases.resolve("2.0").resolve(ReleaseManifest.FILES_DIR);
+        write(files.resolve("bin/corrlang-service"), "#!/bin/sh");
+        write(files.resolve("lib/a.jar"), "jar");
+        Files.writeString(releases.resolve("2.0").resolve(ReleaseManifest.FILE_NAME),
+                manifestLine(files, "bin/corrlang-service") + manifestLine(files, "lib/a.jar"));
+
+        Path target = tempDir.resolve("target");
+        new DeltaUpdate(ReleaseRepository.forBase(releases.toUri()), tempDir.resolve("home")).install("2.0", target);
+
+        Path script = target.resolve("bin/corrlang-service");
+        Assumptions.assumeTrue(Files.getFileStore(script).supportsFileAttributeView("posix"));
+        Assertions.assertTrue(Files.getPosixFilePermissions(script).contains(PosixFilePermission.OWNER_EXECUTE));
+        Assertions.assertFalse(Files.getPosixFilePermissions(target.resolve("lib/a.jar")).contains(PosixFilePermission.OWNER_EXECUTE));
+    }
+
+    @Test
+    public void testModifiedAndReplacedFilesAreNotLinked() throws Exception {
+        Path home = tempDir.resolve("home");
+        Path installed = Installation.versionDir(home, "1.0");
+        write(installed.resolve("lib/a.jar"), "unchanged");
+        InstallManifest.create(installed, "1.0", installed).write(installed);
+        // modified after its hash has been recorded
+        write(installed.resolve("lib/a.jar"), "unchangeD");
+        // the version that is reinstalled
+        write(Installation.versionDir(home, "2.0").resolve("lib/a.jar"), "unchanged");
+
+        Path releases = tempDir.resolve("releases");
+        Path files = releases.resolve("2.0").resolve(ReleaseManifest.FILES_DIR);
+        write(files.resolve("lib/a.jar"), "unchanged");
+        Files.writeString(releases.resolve("2.0").resolve(ReleaseManifest.FILE_NAME), manifestLine(files, "lib/a.jar"));
+
+        Path target = home.resolve("versions/.staging-2.0");
+        DeltaUpdate.Result result = new DeltaUpdate(ReleaseRepository.forBase(releases.toUri()), home).install("2.0", target).orElseThrow();
+
+        Assertions.assertEquals(0, result.linked());
+        Assertions.assertEquals(1, result.downloaded());
+        Assertions.assertEquals("unchanged", Files.readString(target.resolve("lib/a.jar")));
+        Assertions.assertEquals("unchangeD", Files.readString(installed.resolve("lib/a.jar")));
+    }
+
+    @Test
+    public void testLinkedScriptsAreExecutable() throws Exception {
+        Path home = tempDir.resolve("home");
+        Path installed = Installation.versionDir(home, "1.0");
+        write(installed.resolve("bin/corrlang-service"), "#!/bin/sh");
+        Assumptions.assumeTrue(Files.getFileStore(installed).supportsFileAttributeView("posix"));
+        Files.setPosixFilePermissions(installed.resolve("bin/corrlang-service"), PosixFilePermissions.fromString("rw-r--r--"));
+
+        Path releases = tempDir.resolve("releases");
+        Path files = releases.resolve("2.0").resolve(ReleaseManifest.FILES_DIR);
+        write(files.resolve("bin/corrlang-service"), "#!/bin/sh");
+        Files.writeString(releases.resolve("2.0").resolve(ReleaseManifest.FILE_NAME), manifestLine(files, "bin/corrlang-service"));
+
+        Path target = home.resolve("versions/.staging-2.0");
+        DeltaUpdate.Result result = new DeltaUpdate(ReleaseRepository.forBase(releases.toUri()), home).install("2.0", target).orElseThrow();
+
+        Assertions.assertEquals(1, result.linked());
+        Assertions.assertTrue(Files.getPosixFilePermissions(target.resolve("bin/corrlang-service")).contains(PosixFilePermission.OWNER_EXECUTE));
+    }
+
+    @Test
+    public void testReleaseWithoutManifest() throws Exception {
+        ReleaseRepository repository = ReleaseRepository.forBase(tempDir.resolve("releases").toUri());
+        Assertions.assertTrue(new DeltaUpdate(repository, tempDir).install("2.0", tempDir.resolve("target")).isEmpty());
+    }
+
+    @Test
+    public void testCorruptDownloadIsRejected() throws Exception {
+        Path home = tempDir.resolve("home");
+        write(Installation.versionDir(home, "1.0").resolve("lib/a.jar"), "unchanged");
+        Path files = tempDir.resolve("files");
+        write(files.resolve("lib/c.jar"), "added");
+        String manifest = manifestLine(files, "lib/c.jar");
+        ReleaseRepository repository = (version, file) -> Optional.of(new ByteArrayInputStream(
+                (file.equals(ReleaseManifest.FILE_NAME) ? manifest : "tampered").getBytes(StandardCharsets.UTF_8)));
+
+        Path target = tempDir.resolve("target");
+        Assertions.assertThrows(IOException.class, () -> new DeltaUpdate(repository, home).install("2.0", target));
+        Assertions.assertFalse(Files.exists(target.resolve("lib/c.jar")));
+    }
+
+    private static String manifestLine(Path files, String path) throws IOException {
+        Path file = files.resolve(path);
+        return ContentHashes.of(file) + " " + Files.size(file) + " " + path + "\n";
+    }
+}
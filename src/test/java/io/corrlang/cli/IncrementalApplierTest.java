@@ -0,0 +1,152 @@
+package io.corrlang.cli;
+
+import io.corrlang.protocol.Ccp;
+import io.corrlang.protocol.Core;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies CorrSpecs, schemas and data against a client that stands in for the core service
+ * and records which requests actually reach it.
+ */
+public class IncrementalApplierTest extends TempDirTest {
+
+    private static final String PROJECT = "sales";
+
+    private static class RecordingClient implements IncrementalApplier.Client {
+
+        final List<String> requests = new ArrayList<>();
+
+        long startupTS = 1000;
+
+        boolean failMerge = false;
+
+        @Override
+        public Core.CorrLangServiceStatus getServiceStatus() {
+            return Core.CorrLangServiceStatus.newBuilder().setApiVersion(3).setStartupTS(startupTS).setPid(42).build();
+        }
+
+        @Override
+        public Core.ParseResponse mergeCorrSpec(String project, String basePath, String corrSpecPath) {
+            requests.add("merge " + corrSpecPath);
+            Core.ParseResponse.Builder response = Core.ParseResponse.newBuilder();
+            if (failMerge) {
+                response.addErrors(Core.ParseMessage.newBuilder().setMessage("failed"));
+            }
+            return response.build();
+        }
+
+        @Override
+        public Ccp.CorrLangObject requireEndpoint(int endpoint) {
+            return Ccp.CorrLangObject.newBuilder()
+                    .setId(endpoint)
+                    .setObjectType(Ccp.CorrLangObjectType.ENDPOINT)
+                    .setProject(PROJECT)
+                    .setName("Sales")
+                    .build();
+        }
+
+        @Override
+        public Dto.CorrLangObjectUpdated applyAddEndpointSchema(int endpoint, String techSpaceName, File schemaFile) {
+            requests.add("schema " + schemaFile.getName());
+            return new Dto.CorrLangObjectUpdated(PROJECT, "Sales", endpoint, "endpoint");
+        }
+
+        @Override
+        public Dto.CorrLangObjectUpdated applyAddEndpointData(int endpoint, String techSpaceName, File dataFile) {
+            requests.add("data " + dataFile.getName());
+            return new Dto.CorrLangObjectUpdated(PROJECT, "Sales", endpoint, "endpoint");
+        }
+    }
+
+    private final RecordingClient client = new RecordingClient();
+
+    private IncrementalApplier applier() {
+        return new IncrementalApplier(client, tempDir.resolve("state"), PROJECT);
+    }
+
+    private Path write(String name, String content) throws Exception {
+        return write(tempDir.resolve(name), content);
+    }
+
+    @Test
+    public void testUnchangedCorrSpecIsSkipped() throws Exception {
+        write("sales.corr", "endpoint Sales { schema \"sales.graphql\" }");
+        write("sales.graphql", "type Order { id: ID }");
+        String base = tempDir.toString();
+
+        Assertions.assertInstanceOf(Dto.CorrSpecMerged.class, applier().applyCorrSpec(base, "sales.corr"));
+        Assertions.assertInstanceOf(Dto.CorrSpecUnchanged.class, applier().applyCorrSpec(base, "sales.corr"));
+        Assertions.assertEquals(List.of("merge sales.corr"), client.requests);
+
+        // a referenced file has changed
+        write("sales.graphql", "type Order { id: ID, total: Float }");
+        Assertions.assertInstanceOf(Dto.CorrSpecMerged.class, applier().applyCorrSpec(base, "sales.corr"));
+        Assertions.assertEquals(List.of("merge sales.corr", "merge sales.corr"), client.requests);
+    }
+
+    @Test
+    public void testCorrSpecsOfTheSameProjectAreTrackedSeparately() throws Exception {
+        write("orders.corr", "endpoint Orders { }");
+        write("customers.corr", "endpoint Customers { }");
+        String base = tempDir.toString();
+
+        applier().applyCorrSpec(base, "orders.corr");
+        applier().applyCorrSpec(base, "customers.corr");
+        Assertions.assertInstanceOf(Dto.CorrSpecUnchanged.class, applier().applyCorrSpec(base, "orders.corr"));
+        Assertions.assertInstanceOf(Dto.CorrSpecUnchanged.class, applier().applyCorrSpec(base, "customers.corr"));
+        Assertions.assertEquals(List.of("merge orders.corr", "merge customers.corr"), client.requests);
+    }
+
+    @Test
+    public void testMergeWithErrorsIsRepeated() throws Exception {
+        write("sales.corr", "endpoint Sales { }");
+        client.failMerge = true;
+
+        applier().applyCorrSpec(tempDir.toString(), "sales.corr");
+        applier().applyCorrSpec(tempDir.toString(), "sales.corr");
+        Assertions.assertEquals(List.of("merge sales.corr", "merge sales.corr"), client.requests);
+    }
+
+    @Test
+    public void testStateOfRestartedServiceIsDropped() throws Exception {
+        write("sales.corr", "endpoint Sales { }");
+        File schema = write("sales.graphql", "type Order { id: ID }").toFile();
+
+        applier().applyCorrSpec(tempDir.toString(), "sales.corr");
+        applier().applyAddEndpointSchema(1, "GRAPH_QL", schema);
+        client.startupTS++;
+        applier().applyCorrSpec(tempDir.toString(), "sales.corr");
+        applier().applyAddEndpointSchema(1, "GRAPH_QL", schema);
+        Assertions.assertEquals(List.of("merge sales.corr", "schema sales.graphql", "merge sales.corr", "schema sales.graphql"), client.requests);
+    }
+
+    @Test
+    public void testArtifacts() throws Exception {
+        write("sales.corr", "endpoint Sales { }");
+        File schema = write("sales.graphql", "type Order { id: ID }").toFile();
+        File data = write("orders.json", "[]").toFile();
+        IncrementalApplier applier = applier();
+
+        applier.applyAddEndpointSchema(1, "GRAPH_QL", schema);
+        applier.applyAddEndpointData(1, "JSON", data);
+        Assertions.assertInstanceOf(Dto.CorrLangObjectUnchanged.class, applier.applyAddEndpointSchema(1, "GRAPH_QL", schema));
+        Assertions.assertInstanceOf(Dto.CorrLangObjectUnchanged.class, applier.applyAddEndpointData(1, "JSON", data));
+        // another endpoint, changed content
+        applier.applyAddEndpointSchema(2, "GRAPH_QL", schema);
+        write("orders.json", "[{}]");
+        applier.applyAddEndpointData(1, "JSON", data);
+        Assertions.assertEquals(List.of("schema sales.graphql", "data orders.json", "schema sales.graphql", "data orders.json"), client.requests);
+
+        // merging may re-create the endpoints
+        client.requests.clear();
+        applier.applyCorrSpec(tempDir.toString(), "sales.corr");
+        applier.applyAddEndpointSchema(1, "GRAPH_QL", schema);
+        Assertions.assertEquals(List.of("merge sales.corr", "schema sales.graphql"), client.requests);
+    }
+}
@@ -0,0 +1,94 @@
+package io.corrlang.cli;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Writes and reads the manifest and the class path argument file of an installed version.
+ */
+public class InstallManifestTest extends TempDirTest {
+
+    private Path distribution(String name) throws IOException {
+        Path dir = tempDir.resolve(name);
+        write(dir.resolve("lib/corrlang-service.jar"), "service");
+        write(dir.resolve("lib/corrlang-core.jar"), "core");
+        write(dir.resolve("lib/README.txt"), "not on the class path");
+        return dir;
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        Path dir = distribution("2.0");
+        InstallManifest manifest = InstallManifest.create(dir, "2.0", dir);
+        manifest.write(dir);
+
+        // jars only, in a stable order
+        Assertions.assertEquals(List.of("lib/corrlang-core.jar", "lib/corrlang-service.jar"), manifest.classpath());
+        Assertions.assertEquals(ContentHashes.of(dir.resolve("lib/corrlang-core.jar")), manifest.hashes().get("lib/corrlang-core.jar"));
+        Assertions.assertEquals(Optional.of(manifest), InstallManifest.read(dir));
+        Assertions.assertEquals(Optional.empty(), InstallManifest.read(tempDir));
+    }
+
+    @Test
+    public void testArgFileQuoting() throws Exception {
+        // quotes and backslashes have to be escaped in TOML as well as in argument files
+        Assumptions.assumeTrue(File.separatorChar == '/', "not valid in file names");
+        Path dir = distribution("my \"quoted\" dir\\2.0");
+        InstallManifest manifest = InstallManifest.create(dir, "2.0", dir);
+        manifest.write(dir);
+
+        Assertions.assertEquals(Optional.of(manifest), InstallManifest.read(dir));
+        Assertions.assertEquals(dir.toString(), InstallManifest.read(dir).orElseThrow().directory());
+
+        List<String> lines = Files.readAllLines(dir.resolve(InstallManifest.ARG_FILE_NAME));
+        Assertions.assertEquals("-cp", lines.get(0));
+        String expected = dir.resolve("lib/corrlang-core.jar") + File.pathSeparator + dir.resolve("lib/corrlang-service.jar");
+        Assertions.assertEquals(expected, unquote(lines.get(1)));
+    }
+
+    @Test
+    public void testArgFileIsOnlyUsedAtTheRecordedDirectory() throws Exception {
+        Path dir = distribution("2.0");
+        InstallManifest manifest = InstallManifest.create(dir, "2.0", dir);
+        manifest.write(dir);
+        Assertions.assertEquals(Optional.of(dir.resolve(InstallManifest.ARG_FILE_NAME)), manifest.argFile(dir));
+
+        // the installation has been moved, i.e. the absolute paths in the argument file are wrong
+        Path moved = tempDir.resolve("moved");
+        Files.move(dir, moved);
+        InstallManifest movedManifest = InstallManifest.read(moved).orElseThrow();
+        Assertions.assertEquals(Optional.empty(), movedManifest.argFile(moved));
+        Assertions.assertEquals(List.of(moved.resolve("lib/corrlang-core.jar"), moved.resolve("lib/corrlang-service.jar")),
+                movedManifest.absoluteClasspath(moved));
+
+        // the argument file is missing
+        Files.delete(moved.resolve(InstallManifest.ARG_FILE_NAME));
+        Assertions.assertEquals(Optional.empty(), InstallManifest.create(moved, "2.0", moved).argFile(moved));
+    }
+
+    /**
+     * A quoted argument as read by the JVM from an argument file.
+     */
+    private static String unquote(String argument) {
+        Assertions.assertTrue(argument.startsWith("\"") && argument.endsWith("\""), argument);
+        StringBuilder result = new StringBuilder();
+        for (int i = 1; i < argument.length() - 1; i++) {
+            char c = argument.charAt(i);
+            if (c == '\\') {
+                c = argument.charAt(++i);
+            } else {
+                Assertions.assertTrue(c != '"', argument);
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+}
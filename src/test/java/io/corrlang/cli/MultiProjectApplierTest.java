@@ -0,0 +1,99 @@
+package io.corrlang.cli;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The order in which the CorrSpecs of a directory are merged.
+ */
+public class MultiProjectApplierTest extends TempDirTest {
+
+    @Test
+    public void testReferencedEndpointsAreMergedFirst() throws Exception {
+        MultiProjectApplier.Spec sales = spec("a", "sales.corr", "endpoint Sales { }");
+        MultiProjectApplier.Spec hr = spec("b", "hr.corr", "endpoint HR { }");
+        MultiProjectApplier.Spec mapping = spec("c", "mapping.corr", "correspondence Staff (a.Sales, b.HR) { }");
+
+        Map<MultiProjectApplier.Spec, Set<MultiProjectApplier.Spec>> schedule = MultiProjectApplier.schedule(List.of(mapping, sales, hr));
+
+        Assertions.assertEquals(Set.of("Sales"), sales.declaredEndpoints());
+        Assertions.assertEquals(Set.of("Sales", "HR"), mapping.referencedEndpoints());
+        Assertions.assertEquals(Set.of(sales, hr), schedule.get(mapping));
+        Assertions.assertEquals(Set.of(), schedule.get(sales));
+        Assertions.assertEquals(Set.of(), schedule.get(hr));
+        List<MultiProjectApplier.Spec> order = new ArrayList<>(schedule.keySet());
+        Assertions.assertTrue(order.indexOf(mapping) > order.indexOf(sales));
+        Assertions.assertTrue(order.indexOf(mapping) > order.indexOf(hr));
+    }
+
+    @Test
+    public void testCommentsAndStringsAreIgnored() throws Exception {
+        MultiProjectApplier.Spec spec = spec("a", "commented.corr",
+                "// endpoint Old { }",
+                "/* correspondence Gone (Old, Other) { } */",
+                "endpoint Sales { at \"endpoint Fake\" }",
+                "correspondence Staff (Sales, HR) { }");
+
+        Assertions.assertEquals(Set.of("Sales"), spec.declaredEndpoints());
+        Assertions.assertEquals(Set.of("HR"), spec.referencedEndpoints());
+    }
+
+    @Test
+    public void testCycleIsRejected() throws Exception {
+        MultiProjectApplier.Spec first = spec("a", "first.corr", "endpoint A { }", "correspondence X (A, B) { }");
+        MultiProjectApplier.Spec second = spec("b", "second.corr", "endpoint B { }", "correspondence Y (B, A) { }");
+
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> MultiProjectApplier.schedule(List.of(first, second)));
+        Assertions.assertTrue(e.getMessage().contains("first.corr"));
+        Assertions.assertTrue(e.getMessage().contains("second.corr"));
+    }
+
+    @Test
+    public void testSameNamedEndpointsOfOtherProjects() throws Exception {
+        // "Sales" is declared in the own project as well as in two others
+        MultiProjectApplier.Spec own = spec("a", "own.corr", "endpoint Sales { }");
+        MultiProjectApplier.Spec other = spec("b", "other.corr", "endpoint Sales { }", "correspondence X (Sales, Mapping) { }");
+        MultiProjectApplier.Spec third = spec("c", "third.corr", "endpoint Sales { }");
+        MultiProjectApplier.Spec mapping = spec("a", "mapping.corr", "endpoint Mapping { }", "correspondence Y (Sales, Mapping) { }");
+        MultiProjectApplier.Spec ambiguous = spec("d", "ambiguous.corr", "correspondence Z (Sales, Mapping) { }");
+
+        Map<MultiProjectApplier.Spec, Set<MultiProjectApplier.Spec>> schedule =
+                MultiProjectApplier.schedule(List.of(other, own, third, mapping, ambiguous));
+
+        Assertions.assertTrue(schedule.get(mapping).contains(own));
+        Assertions.assertFalse(schedule.get(mapping).contains(other));
+        // no false cycle between 'other' and 'mapping', 'other' uses its own "Sales"
+        Assertions.assertEquals(Set.of(mapping), schedule.get(other));
+        Assertions.assertEquals(Set.of(mapping), schedule.get(ambiguous));
+    }
+
+    @Test
+    public void testSpecsOfTheSameProjectAreSerialized() throws Exception {
+        MultiProjectApplier.Spec first = spec("a", "first.corr", "endpoint A { }");
+        MultiProjectApplier.Spec second = spec("a", "second.corr", "endpoint B { }");
+        MultiProjectApplier.Spec third = spec("a", "third.corr", "endpoint C { }");
+        MultiProjectApplier.Spec independent = spec("b", "independent.corr", "endpoint D { }");
+
+        Map<MultiProjectApplier.Spec, Set<MultiProjectApplier.Spec>> schedule =
+                MultiProjectApplier.schedule(List.of(first, second, independent, third));
+
+        Assertions.assertEquals(List.of(first, second, independent, third), new ArrayList<>(schedule.keySet()));
+        Assertions.assertEquals(Set.of(), schedule.get(first));
+        Assertions.assertEquals(Set.of(first), schedule.get(second));
+        Assertions.assertEquals(Set.of(second), schedule.get(third));
+        Assertions.assertEquals(Set.of(), schedule.get(independent));
+    }
+
+    private MultiProjectApplier.Spec spec(String project, String name, String... lines) throws IOException {
+        Path file = write(tempDir.resolve(project).resolve(name), String.join("\n", lines));
+        return MultiProjectApplier.parse(file, project);
+    }
+}
@@ -0,0 +1,110 @@
+package io.corrlang.cli;
+
+import io.corrlang.protocol.Ccp;
+import io.corrlang.protocol.Core;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Looks up objects in a registry that stands in for the one of the core service.
+ */
+public class ObjectRegistryTest {
+
+    private final List<Ccp.CorrLangObject> objects = List.of(
+            object(1, Ccp.CorrLangObjectType.ENDPOINT, "sales", "Sales"),
+            object(2, Ccp.CorrLangObjectType.ENDPOINT, "hr", "Sales"),
+            object(3, Ccp.CorrLangObjectType.CORRESPONDENCE, "sales", "Staff"));
+
+    private final List<Core.GetObjectsRequest> requests = new ArrayList<>();
+
+    private static Ccp.CorrLangObject object(int id, Ccp.CorrLangObjectType type, String project, String name) {
+        return Ccp.CorrLangObject.newBuilder().setId(id).setObjectType(type).setProject(project).setName(name).build();
+    }
+
+    /**
+     * Answers like the core service, which ignores the filters before API version 3.
+     */
+    private ObjectRegistry registry(boolean supportsFilters) {
+        return new ObjectRegistry(request -> {
+            requests.add(request);
+            if (!supportsFilters) {
+                return objects;
+            }
+            return objects.stream()
+                    .filter(o -> !request.hasObjectType() || o.getObjectType() == request.getObjectType())
+                    .filter(o -> !request.hasProject() || o.getProject().equals(request.getProject()))
+                    .filter(o -> !request.hasName() || o.getName().equals(request.getName()))
+                    .filter(o -> request.getIdsCount() == 0 || request.getIdsList().contains(o.getId()))
+                    .limit(request.hasLimit() ? request.getLimit() : Long.MAX_VALUE)
+                    .toList();
+        }, () -> supportsFilters);
+    }
+
+    @Test
+    public void testFilteredLookupsAreCached() {
+        ObjectRegistry registry = registry(true);
+
+        Assertions.assertEquals(Optional.of(objects.get(1)), registry.find("hr", Ccp.CorrLangObjectType.ENDPOINT, "Sales"));
+        Assertions.assertEquals(1, requests.size());
+        Assertions.assertEquals("Sales", requests.get(0).getName());
+        Assertions.assertEquals("hr", requests.get(0).getProject());
+
+        // found in the index without asking again, by name as well as by id
+        Assertions.assertEquals(Optional.of(objects.get(1)), registry.find("hr", Ccp.CorrLangObjectType.ENDPOINT, "Sales"));
+        Assertions.assertEquals(Optional.of(objects.get(1)), registry.find(2));
+        Assertions.assertEquals(1, requests.size());
+
+        Assertions.assertEquals(Optional.of(objects.get(2)), registry.find(3));
+        Assertions.assertEquals(List.of(3), requests.get(1).getIdsList());
+    }
+
+    @Test
+    public void testMissingObjectsAreAskedForAgain() {
+        ObjectRegistry registry = registry(true);
+
+        Assertions.assertEquals(Optional.empty(), registry.find("sales", Ccp.CorrLangObjectType.VIEW, "Staff"));
+        Assertions.assertEquals(Optional.empty(), registry.find("sales", Ccp.CorrLangObjectType.VIEW, "Staff"));
+        // it may have been registered in the meantime
+        Assertions.assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void testOlderServicesAreQueriedOnce() {
+        ObjectRegistry registry = registry(false);
+
+        Assertions.assertEquals(Optional.of(objects.get(0)), registry.find("sales", Ccp.CorrLangObjectType.ENDPOINT, "Sales"));
+        Assertions.assertEquals(Optional.of(objects.get(2)), registry.find(3));
+        Assertions.assertEquals(Optional.empty(), registry.find("sales", Ccp.CorrLangObjectType.VIEW, "Staff"));
+        Assertions.assertEquals(Optional.empty(), registry.find(42));
+        Assertions.assertEquals(List.of(Core.GetObjectsRequest.getDefaultInstance()), requests);
+    }
+
+    @Test
+    public void testWithoutProject() {
+        ObjectRegistry registry = registry(true);
+
+        Optional<Ccp.CorrLangObject> found = registry.find(null, Ccp.CorrLangObjectType.CORRESPONDENCE, "Staff");
+        Assertions.assertEquals(Optional.of(objects.get(2)), found);
+        Assertions.assertFalse(requests.get(0).hasProject());
+    }
+
+    @Test
+    public void testAddAndInvalidate() {
+        ObjectRegistry registry = registry(true);
+        Ccp.CorrLangObject view = object(4, Ccp.CorrLangObjectType.VIEW, "sales", "Overview");
+
+        registry.add(view);
+        Assertions.assertEquals(Optional.of(view), registry.find("sales", Ccp.CorrLangObjectType.VIEW, "Overview"));
+        Assertions.assertEquals(Optional.of(view), registry.find(4));
+        Assertions.assertTrue(requests.isEmpty());
+
+        // e.g. after merging a CorrSpec, the view is not known to the (stand-in) service
+        registry.invalidate();
+        Assertions.assertEquals(Optional.empty(), registry.find(4));
+        Assertions.assertEquals(1, requests.size());
+    }
+}
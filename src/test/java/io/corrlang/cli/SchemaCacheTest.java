@@ -0,0 +1,105 @@
+package io.corrlang.cli;
+
+import io.corrlang.protocol.Ccp;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stores, validates and evicts endpoint schemas in a cache directory.
+ */
+public class SchemaCacheTest extends TempDirTest {
+
+    private static Ccp.Schema schema(int id, String name) {
+        return Ccp.Schema.newBuilder().setId(id).setName(name).build();
+    }
+
+    private static String fingerprint(Ccp.Schema schema) {
+        return ContentHashes.of(schema.toByteString());
+    }
+
+    private static void store(SchemaCache cache, int endpointId, Ccp.Schema schema) throws Exception {
+        cache.store(endpointId, fingerprint(schema), schema.toByteString());
+    }
+
+    @Test
+    public void testStoreAndLoad() throws Exception {
+        SchemaCache cache = new SchemaCache(tempDir, 1024 * 1024);
+        Ccp.Schema schema = schema(1, "Sales");
+        store(cache, 7, schema);
+
+        Assertions.assertEquals(Optional.of(schema), cache.load(7, fingerprint(schema)));
+        // another version of the schema or another endpoint
+        Assertions.assertEquals(Optional.empty(), cache.load(7, fingerprint(schema(1, "Sales2"))));
+        Assertions.assertEquals(Optional.empty(), cache.load(8, fingerprint(schema)));
+    }
+
+    @Test
+    public void testMismatchingFingerprintIsNotStored() throws Exception {
+        SchemaCache cache = new SchemaCache(tempDir, 1024 * 1024);
+        Ccp.Schema schema = schema(1, "Sales");
+        cache.store(7, fingerprint(schema(1, "Other")), schema.toByteString());
+
+        Assertions.assertEquals(List.of(), names());
+    }
+
+    @Test
+    public void testNewVersionReplacesOldOne() throws Exception {
+        SchemaCache cache = new SchemaCache(tempDir, 1024 * 1024);
+        Ccp.Schema v1 = schema(1, "Sales");
+        Ccp.Schema v2 = schema(1, "Sales, extended");
+        store(cache, 7, v1);
+        store(cache, 7, v2);
+
+        Assertions.assertEquals(List.of("7-" + fingerprint(v2) + ".schema"), names());
+        Assertions.assertEquals(Optional.of(v2), cache.load(7, fingerprint(v2)));
+    }
+
+    @Test
+    public void testCorruptEntryIsDropped() throws Exception {
+        SchemaCache cache = new SchemaCache(tempDir, 1024 * 1024);
+        Ccp.Schema schema = schema(1, "Sales");
+        store(cache, 7, schema);
+        Path entry = tempDir.resolve("7-" + fingerprint(schema) + ".schema");
+        Files.write(entry, new byte[]{(byte) 0xff, (byte) 0xff, 0x01});
+
+        Assertions.assertEquals(Optional.empty(), cache.load(7, fingerprint(schema)));
+        Assertions.assertFalse(Files.exists(entry));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() throws Exception {
+        Ccp.Schema a = schema(1, "A");
+        Ccp.Schema b = schema(2, "B");
+        Ccp.Schema c = schema(3, "C");
+        // room for two of them
+        SchemaCache cache = new SchemaCache(tempDir, 2 * a.getSerializedSize() + 1);
+        store(cache, 1, a);
+        store(cache, 2, b);
+        long now = System.currentTimeMillis();
+        Files.setLastModifiedTime(tempDir.resolve("1-" + fingerprint(a) + ".schema"), FileTime.fromMillis(now - 200_000));
+        Files.setLastModifiedTime(tempDir.resolve("2-" + fingerprint(b) + ".schema"), FileTime.fromMillis(now - 100_000));
+        // using 'a' makes 'b' the least recently used entry
+        Assertions.assertEquals(Optional.of(a), cache.load(1, fingerprint(a)));
+        store(cache, 3, c);
+
+        Assertions.assertEquals(Optional.of(a), cache.load(1, fingerprint(a)));
+        Assertions.assertEquals(Optional.empty(), cache.load(2, fingerprint(b)));
+        Assertions.assertEquals(Optional.of(c), cache.load(3, fingerprint(c)));
+    }
+
+    @Test
+    public void testOversizedSchemaIsNotStored() throws Exception {
+        Ccp.Schema schema = schema(1, "Sales");
+        SchemaCache cache = new SchemaCache(tempDir, schema.getSerializedSize() - 1);
+        store(cache, 7, schema);
+
+        Assertions.assertEquals(List.of(), names());
+        Assertions.assertEquals(Optional.empty(), cache.load(7, fingerprint(schema)));
+    }
+}
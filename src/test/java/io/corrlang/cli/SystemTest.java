@@ -14,10 +14,13 @@ import java.io.InputStream;
 import java.net.ServerSocket;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -39,21 +42,22 @@ public class SystemTest {
 
     @BeforeAll
     public static void setup() throws IOException {
-        Files.createDirectories(INSTALL_DIR);
-        Files.walkFileTree(INSTALL_DIR, DeleteFileVisitor.getInstance());
+        TreeDeleter.delete(INSTALL_DIR);
         logger.info("Cleaned up installation directory: " + INSTALL_DIR.toAbsolutePath().toString());
     }
 
+    /**
+     * Consumes the objects streamed as the result of 'list'.
+     */
+    private static Dto.CorrLangObjects objects(Dto result) {
+        Dto.CorrLangObjectStream stream = Assertions.assertInstanceOf(Dto.CorrLangObjectStream.class, result);
+        List<Dto.CorrLangObject> objects = new ArrayList<>();
+        stream.objects().forEachRemaining(objects::add);
+        return new Dto.CorrLangObjects(objects);
+    }
+
     private void waitForStartup(CoreServiceClient client) throws InterruptedException {
-        int currentTries = 0;
-        while (currentTries < MAX_TRIES) {
-            if (client.checkConnection()) {
-                return;
-            }
-            currentTries++;
-            Thread.sleep(100L * currentTries);
-        }
-        Assertions.fail("CorrLang service did not start within expected time.");
+        Assertions.assertTrue(client.awaitReady(Duration.ofSeconds(30)), "CorrLang service did not start within expected time.");
     }
 
     private void waitForShutdown(CoreServiceClient client) throws InterruptedException {
@@ -260,9 +264,8 @@ public class SystemTest {
         // nothing created yet, therfore all empty
         System.out.println("> corrl -H " + INSTALL_DIR.toAbsolutePath().toString() + " list");
         run = runner.run(new String[]{"-H", INSTALL_DIR.toAbsolutePath().toString(), "list", });
-        run.print();
-        Assertions.assertInstanceOf(Dto.CorrLangObjects.class, run);
-        Dto.CorrLangObjects endpoints = (Dto.CorrLangObjects) run;
+        Dto.CorrLangObjects endpoints = objects(run);
+        endpoints.print();
         Assertions.assertTrue(endpoints.objects().isEmpty());
 
 
@@ -310,8 +313,7 @@ public class SystemTest {
         testEndpointId = created.id();
 
         Dto listResult = runner.run(new String[]{"-H", INSTALL_DIR.toAbsolutePath().toString(), "list" });
-        Assertions.assertInstanceOf(Dto.CorrLangObjects.class, listResult);
-        Dto.CorrLangObjects endpoints = (Dto.CorrLangObjects) listResult;
+        Dto.CorrLangObjects endpoints = objects(listResult);
         Assertions.assertEquals(1, endpoints.objects().size());
         Dto.CorrLangObject endpoint = endpoints.objects().getFirst();
 
@@ -619,8 +621,7 @@ public class SystemTest {
     public void testFinalList() throws Exception {
         Runner runner = new Runner();
         Dto listResult = runner.run(new String[]{"-H", INSTALL_DIR.toAbsolutePath().toString(), "list" });
-        Assertions.assertInstanceOf(Dto.CorrLangObjects.class, listResult);
-        Dto.CorrLangObjects endpoints = (Dto.CorrLangObjects) listResult;
+        Dto.CorrLangObjects endpoints = objects(listResult);
         Assertions.assertEquals(1, endpoints.objects().size());
         Dto.CorrLangObject firstEndpoint = endpoints.objects().getFirst();
         Assertions.assertEquals("TestEndpoint", firstEndpoint.name());
@@ -628,16 +629,14 @@ public class SystemTest {
         Assertions.assertEquals("endpoint", firstEndpoint.type());
 
         listResult = runner.run(new String[]{"-H", INSTALL_DIR.toAbsolutePath().toString(), "list", "-p", "OtherProject" });
-        Assertions.assertInstanceOf(Dto.CorrLangObjects.class, listResult);
-        Dto.CorrLangObjects otherObjects = (Dto.CorrLangObjects) listResult;
+        Dto.CorrLangObjects otherObjects = objects(listResult);
         Assertions.assertEquals(5, otherObjects.objects().size());
         Assertions.assertEquals(3, otherObjects.objects().stream().filter(o -> o.type().equals("endpoint")).count());
         Assertions.assertEquals(1, otherObjects.objects().stream().filter(o -> o.type().equals("view")).count());
         Assertions.assertEquals(1, otherObjects.objects().stream().filter(o -> o.type().equals("correspondence")).count());
 
         listResult = runner.run(new String[]{"-H", INSTALL_DIR.toAbsolutePath().toString(), "list", "--all" });
-        Assertions.assertInstanceOf(Dto.CorrLangObjects.class, listResult);
-        otherObjects = (Dto.CorrLangObjects) listResult;
+        otherObjects = objects(listResult);
         otherObjects.print();
         Assertions.assertEquals(6, otherObjects.objects().size()); // 1 endoint in the default project, 5 in OtherProject
 
@@ -0,0 +1,43 @@
+package io.corrlang.cli;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Base class of the tests that work with files in a temporary directory.
+ */
+abstract class TempDirTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Writes the file, creating its parent directories.
+     */
+    static Path write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file;
+    }
+
+    /**
+     * The sorted names of the files in the given directory.
+     */
+    static List<String> names(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(f -> f.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    /**
+     * The sorted names of the files in the temporary directory.
+     */
+    List<String> names() throws IOException {
+        return names(tempDir);
+    }
+}
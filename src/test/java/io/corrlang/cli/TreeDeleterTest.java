@@ -0,0 +1,114 @@
+package io.corrlang.cli;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Deletes directory trees via tombstones.
+ */
+public class TreeDeleterTest extends TempDirTest {
+
+    @Test
+    public void testDelete() throws Exception {
+        Path tree = tempDir.resolve("lib");
+        for (int i = 0; i < 10; i++) {
+            write(tree.resolve("dir" + i).resolve("sub").resolve("file" + i), "content");
+        }
+        write(tempDir.resolve("config.toml"), "[client]");
+
+        TreeDeleter.delete(tree);
+
+        // no tombstone left behind
+        Assertions.assertEquals(List.of("config.toml"), names());
+        Assertions.assertEquals(List.of(), TreeDeleter.deleteAsync(tempDir.resolve("missing")).join());
+    }
+
+    @Test
+    public void testPathIsFreeAtOnce() throws Exception {
+        Path tree = tempDir.resolve("lib");
+        write(tree.resolve("a.jar"), "old");
+
+        var deletion = TreeDeleter.deleteAsync(tree);
+        // e.g. the new version is extracted while the old one is still being deleted
+        write(tree.resolve("a.jar"), "new");
+
+        Assertions.assertEquals(List.of(), deletion.join());
+        Assertions.assertEquals("new", Files.readString(tree.resolve("a.jar")));
+        Assertions.assertEquals(List.of("lib"), names());
+    }
+
+    @Test
+    public void testSymbolicLinksAreNotFollowed() throws Exception {
+        Path outside = tempDir.resolve("outside");
+        write(outside.resolve("keep.txt"), "keep");
+        Path tree = tempDir.resolve("lib");
+        Files.createDirectories(tree);
+        try {
+            Files.createSymbolicLink(tree.resolve("link"), outside);
+        } catch (UnsupportedOperationException | IOException e) {
+            Assumptions.assumeTrue(false, "symbolic links are not supported");
+        }
+
+        TreeDeleter.delete(tree);
+
+        Assertions.assertEquals("keep", Files.readString(outside.resolve("keep.txt")));
+        Assertions.assertEquals(List.of("outside"), names());
+    }
+
+    @Test
+    public void testInterruptedDeletionsAreCompleted() throws Exception {
+        write(tempDir.resolve(".lib.deleting-123/dir/a.jar"), "old");
+        write(tempDir.resolve(".bin.deleting-456"), "old");
+        write(tempDir.resolve(".hidden"), "keep");
+        write(tempDir.resolve("lib-deleting-1/a.jar"), "keep");
+
+        Assertions.assertEquals(List.of(), TreeDeleter.deleteTombstones(tempDir).join());
+
+        Assertions.assertEquals(List.of(".hidden", "lib-deleting-1"), names());
+        Assertions.assertEquals(List.of(), TreeDeleter.deleteTombstones(tempDir.resolve("missing")).join());
+    }
+
+    @Test
+    public void testFailuresAreCollected() throws Exception {
+        Assumptions.assumeTrue(tempDir.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Path tree = tempDir.resolve("lib");
+        Path first = tree.resolve("first");
+        Path second = tree.resolve("second");
+        write(first.resolve("a.jar"), "content");
+        write(second.resolve("b.jar"), "content");
+        write(tree.resolve("deletable/c.jar"), "content");
+        Files.setPosixFilePermissions(first, PosixFilePermissions.fromString("r-xr-xr-x"));
+        Files.setPosixFilePermissions(second, PosixFilePermissions.fromString("r-xr-xr-x"));
+        try {
+            // e.g. when running as root
+            Assumptions.assumeFalse(Files.isWritable(first), "permissions are not enforced");
+
+            IOException e = Assertions.assertThrows(IOException.class, () -> TreeDeleter.delete(tree));
+
+            // the walk is not aborted by the first failure, what is left stays in the tombstone
+            Assertions.assertTrue(e.getSuppressed().length > 0);
+            Assertions.assertFalse(Files.exists(tree));
+            List<String> names = names();
+            Assertions.assertEquals(1, names.size());
+            Path tombstone = tempDir.resolve(names.get(0));
+            Assertions.assertTrue(names.get(0).startsWith(".lib.deleting-"), names.get(0));
+            Assertions.assertFalse(Files.exists(tombstone.resolve("deletable")));
+            Assertions.assertTrue(Files.exists(tombstone.resolve("first/a.jar")));
+            Assertions.assertTrue(Files.exists(tombstone.resolve("second/b.jar")));
+        } finally {
+            try (Stream<Path> dirs = Files.walk(tempDir)) {
+                for (Path dir : dirs.filter(Files::isDirectory).toList()) {
+                    Files.setPosixFilePermissions(dir, PosixFilePermissions.fromString("rwxr-xr-x"));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.corrlang.cli;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Extracts distribution archives into an installation directory.
+ */
+public class ZipExtractorTest extends TempDirTest {
+
+    /**
+     * Writes a zip with the given entries, given as pairs of name and content (null for directories).
+     */
+    private Path zip(String... entries) throws IOException {
+        Path zip = tempDir.resolve("corrlang.zip");
+        try (OutputStream file = Files.newOutputStream(zip); ZipOutputStream out = new ZipOutputStream(file)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                out.putNextEntry(new ZipEntry(entries[i]));
+                if (entries[i + 1] != null) {
+                    out.write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+                }
+                out.closeEntry();
+            }
+        }
+        return zip;
+    }
+
+    @Test
+    public void testDistributionRootIsStripped() throws Exception {
+        Path zip = zip(
+                "corrlang/", null,
+                "corrlang/lib/", null,
+                "corrlang/lib/corrlang-core.jar", "core",
+                "corrlang/bin/corrlang-service", "#!/bin/sh");
+        Path destination = tempDir.resolve("home");
+
+        ZipExtractor.extract(zip, destination);
+
+        Assertions.assertEquals("core", Files.readString(destination.resolve("lib/corrlang-core.jar")));
+        Assertions.assertEquals("#!/bin/sh", Files.readString(destination.resolve("bin/corrlang-service")));
+        // extracted in place, i.e. nothing but the extracted directories and no staging directory anywhere
+        Assertions.assertEquals(List.of("bin", "lib"), names(destination));
+        Assertions.assertEquals(List.of("corrlang.zip", "home"), names());
+    }
+
+    @Test
+    public void testEntriesOutsideOfTheDestinationAreRejected() throws Exception {
+        Path destination = tempDir.resolve("home");
+        Files.createDirectories(destination.resolve("lib"));
+        Files.writeString(destination.resolve("lib/corrlang-core.jar"), "installed");
+        Path zip = zip(
+                "corrlang/lib/corrlang-core.jar", "new",
+                "corrlang/../../evil.sh", "rm -rf");
+
+        Assertions.assertThrows(IOException.class, () -> ZipExtractor.extract(zip, destination));
+
+        Assertions.assertFalse(Files.exists(tempDir.resolve("evil.sh")));
+        Assertions.assertFalse(Files.exists(tempDir.getParent().resolve("evil.sh")));
+        // rejected before anything is written
+        Assertions.assertEquals("installed", Files.readString(destination.resolve("lib/corrlang-core.jar")));
+        Assertions.assertEquals(List.of("lib"), names(destination));
+    }
+}